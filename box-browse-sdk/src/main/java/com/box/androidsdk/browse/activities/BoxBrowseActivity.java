@@ -200,7 +200,10 @@ public abstract class BoxBrowseActivity extends BoxThreadPoolExecutorActivity im
      * @return Browsing fragment that will be used to show the BoxItems
      */
     protected BoxBrowseFolderFragment createBrowseFolderFragment(final BoxItem folder, final BoxSession session) {
-        final BoxBrowseFolderFragment fragment = new BoxBrowseFolderFragment.Builder((BoxFolder) folder, session).build();
+        final BoxBrowseFolderFragment.Builder builder = new BoxBrowseFolderFragment.Builder((BoxFolder) folder, session);
+        // Items are returned to the caller of this activity, so they need more than the rendered fields.
+        builder.setFieldProfile(BrowseController.FieldProfile.PICKER);
+        final BoxBrowseFolderFragment fragment = builder.build();
         if (mUpdateListener == null) {
             mUpdateListener = new OnUpdateListener() {
                 @Override
@@ -336,7 +339,9 @@ public abstract class BoxBrowseActivity extends BoxThreadPoolExecutorActivity im
             FragmentTransaction trans = getSupportFragmentManager().beginTransaction();
 
             // All fragments will always navigate into folders
-            BoxSearchFragment searchFragment = new BoxSearchFragment.Builder(mSession, text, getCurrentFolder()).build();
+            BoxSearchFragment.Builder builder = new BoxSearchFragment.Builder(mSession, text, getCurrentFolder());
+            builder.setFieldProfile(BrowseController.FieldProfile.PICKER);
+            BoxSearchFragment searchFragment = builder.build();
             trans.replace(R.id.box_browsesdk_fragment_container, searchFragment)
                     .addToBackStack(BoxBrowseFragment.TAG)
                     .commit();
@@ -5,7 +5,9 @@ import android.content.Context;
 import android.os.Handler;
 import android.os.Looper;
 import androidx.appcompat.widget.AppCompatCheckBox;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
+import android.view.Choreographer;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -17,8 +19,11 @@ import android.widget.TextView;
 import com.box.androidsdk.browse.R;
 import com.box.androidsdk.browse.activities.BoxBrowseActivity;
 import com.box.androidsdk.browse.filters.BoxItemFilter;
+import com.box.androidsdk.browse.models.BoxItemFingerprint;
 import com.box.androidsdk.browse.fragments.BoxBrowseFragment;
 import com.box.androidsdk.browse.service.BrowseController;
+import com.box.androidsdk.content.models.BoxBookmark;
+import com.box.androidsdk.content.models.BoxFile;
 import com.box.androidsdk.content.models.BoxFolder;
 import com.box.androidsdk.content.models.BoxItem;
 import com.box.androidsdk.content.models.BoxSession;
@@ -26,6 +31,7 @@ import com.box.androidsdk.content.utils.SdkUtils;
 
 import java.lang.ref.WeakReference;
 import java.text.DateFormat;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -33,9 +39,11 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Adapter for BoxItems used in the RecyclerView of a BrowseFragment
@@ -45,16 +53,50 @@ public class BoxItemAdapter extends RecyclerView.Adapter<BoxItemAdapter.BoxItemV
     protected final Context mContext;
     protected final BrowseController mController;
     protected final OnInteractionListener mListener;
-    protected final ArrayList<BoxItem> mItems = new ArrayList<BoxItem>();
+    // Items shown, replaced as a whole on the ui thread for every change so that they can be read without locking
+    protected volatile BoxItemListSnapshot mSnapshot = BoxItemListSnapshot.EMPTY;
     protected final Handler mHandler;
 
     protected int BOX_ITEM_VIEW_TYPE = 0;
     protected static final int REMOVE_LIMIT = 5;
     protected static final int INSERT_LIMIT = 10;
-    protected ReadWriteLock mLock = new ReentrantReadWriteLock();
     WeakReference<RecyclerView> mRecyclerViewRef;
 
-    static final int DELAY = 50;
+    // Files, folders and bookmarks are numbered independently, so their stable ids carry the type in the top bits
+    private static final int STABLE_ID_TYPE_SHIFT = 60;
+    private static final long STABLE_ID_TYPE_FILE = 1L << STABLE_ID_TYPE_SHIFT;
+    private static final long STABLE_ID_TYPE_FOLDER = 2L << STABLE_ID_TYPE_SHIFT;
+    private static final long STABLE_ID_TYPE_BOOKMARK = 3L << STABLE_ID_TYPE_SHIFT;
+    // Stable ids assigned to the items whose id cannot be encoded, by type and id. Negative and counting down.
+    private final HashMap<String, Long> mAssignedStableIds = new HashMap<String, Long>();
+
+    // Computes the differences between the list shown and the one given to updateTo()
+    private static final ExecutorService DIFF_EXECUTOR = createDiffExecutor();
+
+    // Latest list given to updateTo() whose diff has not been applied yet, only accessed on the ui thread except
+    // for the read that skips superseded diffs
+    private volatile ArrayList<BoxItem> mPendingUpdate;
+    // Applies the diff of mPendingUpdate once it is computed, in the next drain. Ui thread only.
+    private Runnable mDiffedUpdate;
+
+    // Changes waiting for the next frame, in the order they were made
+    private final ArrayDeque<Mutation> mMutations = new ArrayDeque<Mutation>();
+    // Guarded by mMutations
+    private boolean mIsDrainScheduled;
+
+    private final Choreographer.FrameCallback mDrainCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            drainMutations();
+        }
+    };
+
+    private final Runnable mScheduleDrain = new Runnable() {
+        @Override
+        public void run() {
+            Choreographer.getInstance().postFrameCallback(mDrainCallback);
+        }
+    };
 
 
     /**
@@ -69,10 +111,23 @@ public class BoxItemAdapter extends RecyclerView.Adapter<BoxItemAdapter.BoxItemV
         mController = controller;
         mListener = listener;
         mHandler = new Handler(Looper.getMainLooper());
+        setHasStableIds(true);
     }
 
 
 
+    private static ExecutorService createDiffExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        return new Thread(r, "BoxBrowse-diff");
+                    }
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
     @Override
     public void onAttachedToRecyclerView(RecyclerView recyclerView) {
         mRecyclerViewRef = new WeakReference<RecyclerView>(recyclerView);
@@ -85,11 +140,8 @@ public class BoxItemAdapter extends RecyclerView.Adapter<BoxItemAdapter.BoxItemV
      * @return true if the recyclerview is currently computing its layout, false otherwise.
      */
     protected boolean isRecyclerViewComputing(){
-        if (mRecyclerViewRef == null && mRecyclerViewRef.get() != null){
-            boolean isComputing = mRecyclerViewRef.get().isComputingLayout();
-            return isComputing;
-        }
-        return false;
+        RecyclerView recyclerView = mRecyclerViewRef != null ? mRecyclerViewRef.get() : null;
+        return recyclerView != null && recyclerView.isComputingLayout();
     }
 
     /**
@@ -109,8 +161,8 @@ public class BoxItemAdapter extends RecyclerView.Adapter<BoxItemAdapter.BoxItemV
 
     @Override
     public void onBindViewHolder(BoxItemViewHolder boxItemHolder, int i) {
-        BoxItem item = mItems.get(i);
-        boxItemHolder.bindItem(item);
+        BoxItemListSnapshot snapshot = mSnapshot;
+        boxItemHolder.bindItem(snapshot.get(i), snapshot.getFingerprint(i));
     }
 
     /**
@@ -129,7 +181,7 @@ public class BoxItemAdapter extends RecyclerView.Adapter<BoxItemAdapter.BoxItemV
 
     @Override
     public int getItemCount() {
-        return mItems != null ? mItems.size() : 0;
+        return mSnapshot.size();
     }
 
     @Override
@@ -138,256 +190,291 @@ public class BoxItemAdapter extends RecyclerView.Adapter<BoxItemAdapter.BoxItemV
     }
 
     /**
-     * Clear all items from the adapter. This method is always run on ui
-     * thread so adapter may not reflect changes immediately.
+     * Clear all items from the adapter. Applied right away on the ui thread unless the RecyclerView is computing its
+     * layout, otherwise in the next frame, see {@link #enqueue(Runnable, boolean)}. Changes still queued are dropped.
      */
     public void removeAll() {
-        if (isRecyclerViewComputing() || ! isOnUiThread()){
-            mHandler.postDelayed(new Runnable() {
-                @Override
-                public void run() {
-                    removeAll();
-                }
-            }, DELAY);
-            return;
-        }
-        Lock lock = mLock.writeLock();
-        lock.lock();
-        try {
-            mItems.clear();
-            notifyDataSetChanged();
-        } finally {
-            lock.unlock();
-        }
+        enqueue(new Runnable() {
+            @Override
+            public void run() {
+                cancelPendingUpdate();
+                mSnapshot = BoxItemListSnapshot.EMPTY;
+                notifyDataSetChanged();
+            }
+        }, true);
     }
 
     /**
-     * Removes the ids from this folder if applicable. This method is always run on ui
-     * thread so adapter may not reflect changes immediately.
+     * Removes the ids from this folder if applicable. Applied right away on the ui thread when nothing is queued,
+     * otherwise in order in a later frame, see {@link #enqueue(Runnable, boolean)}.
      *
      * @param ids list of ids to remove
      */
-    public void remove(final List<String> ids){
-        if (isRecyclerViewComputing()  || ! isOnUiThread()){
-            mHandler.postDelayed(new Runnable() {
-                @Override
-                public void run() {
-                    remove(ids);
-                }
-            }, DELAY);
-            return;
-        }
-        mLock.readLock().lock();
-        try {
-            // check to see if any of the ids are applicable to the data set.
-            HashMap<String, Integer> itemsPositionMap = getPositionMap(mItems);
-            boolean foundInItems = false;
-            for (String id: ids){
-                if (itemsPositionMap.containsKey(id)){
-                    foundInItems = true;
-                    break;
-                }
+    public void remove(List<String> ids){
+        final ArrayList<String> idsToRemove = new ArrayList<String>(ids);
+        enqueue(new Runnable() {
+            @Override
+            public void run() {
+                performRemove(idsToRemove);
             }
-            if (!foundInItems){
-                // none of the ids are applicable for this data set no need to proceed.
-                return;
-            }
-
-        } finally{
-            mLock.readLock().unlock();
-        }
-        final Lock writeLock = mLock.writeLock();
-        writeLock.lock();
-
+        }, false);
+    }
 
+    private void performRemove(List<String> ids) {
+        final BoxItemListSnapshot snapshot = mSnapshot;
         HashSet<String> idsRemoved = new HashSet<String>(ids.size());
-        try {
-            final ArrayList<Integer> indexesRemoved = new ArrayList<Integer>(ids.size());
-            HashMap<String, Integer> mItemsPositionMap = getPositionMap(mItems);
-            for (String id : ids) {
-                Integer index = mItemsPositionMap.get(id);
-                if (index != null) {
-                    idsRemoved.add(id);
-                    indexesRemoved.add(index);
-                }
-            }
-            // because we are using an array list we don't want to do multiple removes (as this needs to create a new array and does array copies).
-            final ArrayList<BoxItem> listWithoutRemovedIds = new ArrayList<BoxItem>(mItems.size() - idsRemoved.size());
-            for (BoxItem item : mItems) {
-                if (!idsRemoved.contains(item.getId())) {
-                    listWithoutRemovedIds.add(item);
-                }
+        final ArrayList<Integer> indexesRemoved = new ArrayList<Integer>(ids.size());
+        for (String id : ids) {
+            int index = snapshot.indexOf(id);
+            if (index >= 0 && idsRemoved.add(id)) {
+                indexesRemoved.add(index);
             }
+        }
+        if (idsRemoved.isEmpty()){
+            // none of the ids are applicable for this data set no need to proceed.
+            return;
+        }
 
-            boolean removedItems = false;
-            if (indexesRemoved.size() <= REMOVE_LIMIT) {
-                Collections.sort(indexesRemoved);
-                for (int i=indexesRemoved.size() -1; i >= 0; i--){
-                    notifyItemRemoved(indexesRemoved.get(i));
-                }
-                removedItems = true;
+        mSnapshot = snapshot.withRemoved(idsRemoved);
+        // An id listed twice removes more rows than were indexed, those are refreshed as a whole
+        boolean removedIndexedRows = snapshot.size() - mSnapshot.size() == indexesRemoved.size();
+        if (removedIndexedRows && indexesRemoved.size() <= REMOVE_LIMIT) {
+            Collections.sort(indexesRemoved);
+            for (int i=indexesRemoved.size() -1; i >= 0; i--){
+                notifyItemRemoved(indexesRemoved.get(i));
             }
-            // we need to alter the list after the remove.
-
-            mItems.clear();
-            mItems.addAll(listWithoutRemovedIds);
-
-            if (removedItems && mItems.size() > 0) {
-                notifyItemRangeChanged(0, mItems.size());
-            } else {
-                notifyDataSetChanged();
+            if (mSnapshot.size() > 0) {
+                notifyItemRangeChanged(0, mSnapshot.size());
             }
-        } finally {
-            writeLock.unlock();
+        } else {
+            notifyDataSetChanged();
         }
     }
 
     /**
-     * Does the appropriate add and removes to display only provided items. This method is always run on ui
-     * thread so adapter may not reflect changes immediately.
+     * Does the appropriate add and removes to display only provided items. The changes are computed on a background
+     * thread and applied on the ui thread as a single batch of inserts, removes, moves and changes, so the adapter
+     * may not reflect changes immediately. Changes still queued, and a diff that is still running, are dropped in
+     * favour of the new list.
      *
      * @param items new list of items adapter should reflect.
      */
-    public void updateTo(final ArrayList<BoxItem> items){
-        if (isRecyclerViewComputing() ||  ! isOnUiThread()){
-            mHandler.postDelayed(new Runnable() {
-                @Override
-                public void run() {
-                    updateTo(items);
-                }
-            }, DELAY);
+    public void updateTo(ArrayList<BoxItem> items){
+        final ArrayList<BoxItem> newItems = new ArrayList<BoxItem>(items);
+        enqueue(new Runnable() {
+            @Override
+            public void run() {
+                performUpdateTo(newItems);
+            }
+        }, true);
+    }
+
+    private void performUpdateTo(final ArrayList<BoxItem> newItems) {
+        cancelPendingUpdate();
+        final BoxItemListSnapshot oldSnapshot = mSnapshot;
+        if (oldSnapshot.size() == 0 || newItems.size() == 0){
+            // if going from completely empty to having something, or to nothing, do not bother animating.
+            mSnapshot = BoxItemListSnapshot.of(newItems);
+            notifyDataSetChanged();
             return;
         }
-        final Lock writeLock = mLock.writeLock();
-        writeLock.lock();
-       try{
-            if (mItems.size() == 0){
-                // if going from completely empty to having something do not bother animating.
-                mItems.clear();
-                mItems.addAll(items);
-                notifyDataSetChanged();
-                return;
-            }
 
-            final HashMap<String, Integer> oldPositionMap = getPositionMap(mItems);
-            final ArrayList<Integer> newItemPositions = new ArrayList<Integer>();
-            boolean needsContentUpdate = false;
-            for (int i=0; i < items.size(); i++){
-                Integer index = oldPositionMap.remove(items.get(i).getId());
-                if (index == null){
-                    needsContentUpdate = true;
-                    newItemPositions.add(i);
-                } else if (!needsContentUpdate){
-
-                    if (index.equals(i)){
-                        if (!(mItems.get(i) == items.get(i))) {
-                            // check to see if the contents have changed for items with the same index.
-                            needsContentUpdate = !mItems.get(i).equals(items.get(i));
+        mPendingUpdate = newItems;
+        DIFF_EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (newItems != mPendingUpdate) {
+                    // Superseded before it started
+                    return;
+                }
+                // The id index and fingerprints of the new snapshot are built here, leaving only the swap to the ui thread
+                final BoxItemListSnapshot newSnapshot = BoxItemListSnapshot.of(newItems);
+                final DiffUtil.DiffResult result = DiffUtil.calculateDiff(new ItemDiffCallback(oldSnapshot, newSnapshot), true);
+                mHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (newItems != mPendingUpdate) {
+                            // A newer list arrived while this one was diffed
+                            return;
                         }
-                    } else {
-                        needsContentUpdate = true;
+                        mDiffedUpdate = new Runnable() {
+                            @Override
+                            public void run() {
+                                mPendingUpdate = null;
+                                mSnapshot = newSnapshot;
+                                result.dispatchUpdatesTo(BoxItemAdapter.this);
+                            }
+                        };
+                        requestDrain();
                     }
-                }
+                });
+            }
+        });
+    }
+
+    private void cancelPendingUpdate() {
+        mPendingUpdate = null;
+        mDiffedUpdate = null;
+    }
+
+    /**
+     * Applies a change to the items. A change made on the ui thread is applied right away, so that callers see it,
+     * unless the RecyclerView is computing its layout or the change has to wait for changes queued before it or for
+     * the diff of an updateTo(). Otherwise the change is queued, to be applied on the ui thread in the next frame.
+     * May be called from any thread.
+     *
+     * @param mutation        the change
+     * @param replacesContent true if the change defines the whole content, so the changes queued before it are dropped
+     */
+    protected void enqueue(Runnable mutation, boolean replacesContent) {
+        boolean canApplyNow = isOnUiThread() && !isRecyclerViewComputing();
+        synchronized (mMutations) {
+            if (replacesContent) {
+                mMutations.clear();
+            }
+            canApplyNow = canApplyNow && (replacesContent || (mMutations.isEmpty() && mPendingUpdate == null));
+            if (!canApplyNow) {
+                mMutations.add(new Mutation(mutation, replacesContent));
             }
-            needsContentUpdate |= oldPositionMap.size() > 0 || newItemPositions.size() > 0 || items.size() == 0;
-            if (!needsContentUpdate ){
+        }
+        if (canApplyNow) {
+            mutation.run();
+        } else {
+            requestDrain();
+        }
+    }
+
+    private void requestDrain() {
+        synchronized (mMutations) {
+            if (mIsDrainScheduled) {
                 return;
-            } else {
-                if (oldPositionMap.size() == 0 && newItemPositions.size() > 0 && newItemPositions.size() <= INSERT_LIMIT){
-                    mItems.clear();
-                    mItems.addAll(items);
-                    for (Integer insertIndex : newItemPositions) {
-                        notifyItemInserted(insertIndex);
-                    }
-                    notifyItemRangeChanged(0, mItems.size());
-                } else if (oldPositionMap.size() > 0 && oldPositionMap.size() <= REMOVE_LIMIT){
-                    final ArrayList<Integer> indexesRemoved = new ArrayList<Integer>(oldPositionMap.size());
-                    indexesRemoved.addAll(oldPositionMap.values());
-                    Collections.sort(indexesRemoved);
-                    for (int i = indexesRemoved.size() - 1; i >= 0; i--) {
-                        notifyItemRemoved(indexesRemoved.get(i));
-                    }
-                    mItems.clear();
-                    mItems.addAll(items);
-                    notifyItemRangeChanged(0, mItems.size());
-              } else {
-                    // for everything else, mixed operations or oeprations beyond limits
-                    mItems.clear();
-                    mItems.addAll(items);
-                    notifyDataSetChanged();
+            }
+            mIsDrainScheduled = true;
+        }
+        if (isOnUiThread()) {
+            mScheduleDrain.run();
+        } else {
+            mHandler.post(mScheduleDrain);
+        }
+    }
+
+    /**
+     * Applies the queued changes in order. Runs once per frame while changes are queued, and waits for a later frame
+     * while the RecyclerView computes its layout. Changes queued behind an updateTo() wait for its diff, unless they
+     * replace the content anyway.
+     */
+    private void drainMutations() {
+        synchronized (mMutations) {
+            mIsDrainScheduled = false;
+        }
+        if (isRecyclerViewComputing()) {
+            requestDrain();
+            return;
+        }
+        if (mDiffedUpdate != null) {
+            Runnable diffedUpdate = mDiffedUpdate;
+            mDiffedUpdate = null;
+            diffedUpdate.run();
+        }
+        while (true) {
+            Mutation mutation;
+            synchronized (mMutations) {
+                mutation = mMutations.peek();
+                if (mutation == null || (mPendingUpdate != null && !mutation.mReplacesContent)) {
+                    // Drained, or waiting for a diff, which requests a drain once it is done
+                    return;
                 }
+                mMutations.poll();
             }
-       } finally {
-            writeLock.unlock();
-       }
+            mutation.mAction.run();
+        }
+    }
 
+    private static class Mutation {
 
+        private final Runnable mAction;
+        private final boolean mReplacesContent;
+
+        Mutation(Runnable action, boolean replacesContent) {
+            mAction = action;
+            mReplacesContent = replacesContent;
+        }
     }
 
     /**
-     * Add items to the end of the adapter. This method is always run on ui
-     * thread so adapter may not reflect changes immediately.
-     *
-     * @param items to append to this adapter.
+     * Compares the items shown with a new list by id, and by their {@link BoxItemFingerprint}s for the items kept.
      */
-    public void add(final List<BoxItem> items) {
-        if (items.size() == 0){
-            return;
+    private static class ItemDiffCallback extends DiffUtil.Callback {
+
+        private final BoxItemListSnapshot mOldSnapshot;
+        private final BoxItemListSnapshot mNewSnapshot;
+
+        ItemDiffCallback(BoxItemListSnapshot oldSnapshot, BoxItemListSnapshot newSnapshot) {
+            mOldSnapshot = oldSnapshot;
+            mNewSnapshot = newSnapshot;
         }
 
-        if (isRecyclerViewComputing() || ! isOnUiThread()){
-            mHandler.postDelayed(new Runnable() {
-                @Override
-                public void run() {
-                    add(items);
-                }
-            }, DELAY);
-            return;
+        @Override
+        public int getOldListSize() {
+            return mOldSnapshot.size();
         }
 
-        final Lock lock = mLock.writeLock();
-        lock.lock();
-        mItems.addAll(items);
-        try {
-            notifyDataSetChanged();
-        }finally{
-            lock.unlock();
+        @Override
+        public int getNewListSize() {
+            return mNewSnapshot.size();
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+            String oldId = mOldSnapshot.get(oldItemPosition).getId();
+            return oldId != null && oldId.equals(mNewSnapshot.get(newItemPosition).getId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+            return mOldSnapshot.get(oldItemPosition) == mNewSnapshot.get(newItemPosition)
+                    || mOldSnapshot.getFingerprint(oldItemPosition) == mNewSnapshot.getFingerprint(newItemPosition);
         }
     }
 
     /**
-     * Update an item inside of the adapter if applicable. This method is always run on ui
-     * thread so adapter may not reflect changes immediately.
+     * Add items to the end of the adapter. Applied right away on the ui thread when nothing is queued, otherwise in
+     * order in a later frame, see {@link #enqueue(Runnable, boolean)}.
      *
-     * @param item item to update.
+     * @param items to append to this adapter.
      */
-    public void update(final BoxItem item) {
-
-        if (isRecyclerViewComputing() || ! isOnUiThread()){
-            mHandler.postDelayed(new Runnable() {
-                @Override
-                public void run() {
-                    update(item);
-                }
-            }, DELAY);
+    public void add(List<BoxItem> items) {
+        if (items.size() == 0){
             return;
         }
-        final Lock lock = mLock.writeLock();
-        lock.lock();
-        try{
-            for (int i=0; i < mItems.size(); i++){
-                if(mItems.get(i).getId().equals(item.getId())){
-                    final int index = i;
-                    mItems.set(index, item);
+        final ArrayList<BoxItem> itemsToAdd = new ArrayList<BoxItem>(items);
+        enqueue(new Runnable() {
+            @Override
+            public void run() {
+                int positionStart = mSnapshot.size();
+                mSnapshot = mSnapshot.withAppended(itemsToAdd);
+                notifyItemRangeInserted(positionStart, itemsToAdd.size());
+            }
+        }, false);
+    }
+
+    /**
+     * Update an item inside of the adapter if applicable. Applied right away on the ui thread when nothing is queued,
+     * otherwise in order in a later frame, see {@link #enqueue(Runnable, boolean)}.
+     *
+     * @param item item to update.
+     */
+    public void update(final BoxItem item) {
+        enqueue(new Runnable() {
+            @Override
+            public void run() {
+                final int index = mSnapshot.indexOf(item.getId());
+                if (index >= 0) {
+                    mSnapshot = mSnapshot.withReplaced(index, item);
                     notifyItemChanged(index);
-                    return;
                 }
             }
-
-            return;
-        } finally {
-            lock.unlock();
-        }
+        }, false);
     }
 
     /**
@@ -398,17 +485,18 @@ public class BoxItemAdapter extends RecyclerView.Adapter<BoxItemAdapter.BoxItemV
      * @return the index of the box item id.
      */
     public int indexOf(String id) {
-        mLock.readLock().lock();
-        try {
-            for (int i = 0; i < mItems.size(); i++) {
-                if (mItems.get(i).getId().equals((id))) {
-                    return i;
-                }
-            }
-        } finally {
-            mLock.readLock().unlock();
-        }
-        return -1;
+        return mSnapshot.indexOf(id);
+    }
+
+    /**
+     * It may return stale data in case an
+     * update method is pending.
+     *
+     * @param position an index position
+     * @return the item at that position, or null if the position is out of range.
+     */
+    public BoxItem getItem(int position) {
+        return mSnapshot.get(position);
     }
 
     /**
@@ -418,29 +506,62 @@ public class BoxItemAdapter extends RecyclerView.Adapter<BoxItemAdapter.BoxItemV
      * @return A new list containing the items shown by this adapter.
      */
     public ArrayList<BoxItem> getItems() {
-        mLock.readLock().lock();
-        try {
-            return (ArrayList<BoxItem>) mItems.clone();
-        } finally{
-            mLock.readLock().unlock();
-        }
+        return new ArrayList<BoxItem>(mSnapshot.getItems());
+    }
+
+    /**
+     * Gets the items shown by this adapter without copying them. The snapshot is not changed by later updates, and
+     * may be stale in case an update method is pending.
+     *
+     * @return the current snapshot of the items
+     */
+    public BoxItemListSnapshot getSnapshot() {
+        return mSnapshot;
     }
 
     /**
      * It may return stale data in case an
      * update method is pending.
      * @param position an index position
-     * @return a box item id for the item at that position.
+     * @return the stable id of the item at that position, see {@link #getStableId(BoxItem)}.
      */
     @Override
     public long getItemId(int position) {
-        mLock.readLock().lock();
-        try {
-            return Long.parseLong(mItems.get(position).getId());
-        } catch (NumberFormatException e){
-            return mItems.get(position).getId().hashCode();
-        } finally {
-            mLock.readLock().unlock();
+        return getStableId(mSnapshot.get(position));
+    }
+
+    /**
+     * Gets the stable id of an item, unique among the items of this adapter. Numeric ids of files, folders and
+     * bookmarks are combined with their type. Any other item is assigned a negative id the first time it is seen,
+     * which is kept for its type and id for the lifetime of the adapter. Subclasses showing rows other than box items
+     * may override this to give them fixed ids, below the ones assigned here.
+     *
+     * @param item the item
+     * @return the stable id
+     */
+    protected long getStableId(BoxItem item) {
+        long typeBits = item instanceof BoxFile ? STABLE_ID_TYPE_FILE :
+                item instanceof BoxFolder ? STABLE_ID_TYPE_FOLDER :
+                item instanceof BoxBookmark ? STABLE_ID_TYPE_BOOKMARK : 0;
+        String id = item.getId();
+        if (typeBits != 0 && id != null && id.length() <= 18) {
+            try {
+                long numericId = Long.parseLong(id);
+                if (numericId >= 0 && numericId < 1L << STABLE_ID_TYPE_SHIFT) {
+                    return typeBits | numericId;
+                }
+            } catch (NumberFormatException e) {
+                // assigned below
+            }
+        }
+        String key = item.getClass().getName() + ":" + id;
+        synchronized (mAssignedStableIds) {
+            Long stableId = mAssignedStableIds.get(key);
+            if (stableId == null) {
+                stableId = -1L - mAssignedStableIds.size();
+                mAssignedStableIds.put(key, stableId);
+            }
+            return stableId;
         }
     }
 
@@ -451,6 +572,10 @@ public class BoxItemAdapter extends RecyclerView.Adapter<BoxItemAdapter.BoxItemV
     public class BoxItemViewHolder extends RecyclerView.ViewHolder implements View.OnClickListener, View.OnLongClickListener {
 
         BoxItem mItem;
+        // Fingerprint of mItem, and the item being bound along with its fingerprint
+        long mFingerprint;
+        BoxItem mBindingItem;
+        long mBindingFingerprint;
         View mView;
         ImageView mThumbView;
         TextView mNameView;
@@ -490,11 +615,43 @@ public class BoxItemAdapter extends RecyclerView.Adapter<BoxItemAdapter.BoxItemV
          * @param item the item
          */
         public void bindItem(BoxItem item) {
+            bindItem(item, item != null ? BoxItemFingerprint.compute(item) : 0);
+        }
+
+        /**
+         * Bind item whose fingerprint is already known, e.g. from the snapshot of the adapter.
+         *
+         * @param item        the item
+         * @param fingerprint the fingerprint of the item
+         */
+        void bindItem(BoxItem item, long fingerprint) {
+            mBindingItem = item;
+            mBindingFingerprint = fingerprint;
             onBindBoxItemViewHolder(this, item);
+            mBindingItem = null;
             mItem = item;
+            mFingerprint = fingerprint;
             mSecondaryClickListener.setListItem(mItem);
         }
 
+        /**
+         * Whether an item renders the same as the item this holder was last bound to, so that its views need not be
+         * updated.
+         *
+         * @param itemToBind the item being bound
+         * @return true if the item has the id and {@link BoxItemFingerprint} of the item shown
+         */
+        protected boolean isShowing(BoxItem itemToBind) {
+            if (mItem == null || itemToBind == null) {
+                return false;
+            }
+            if (mItem == itemToBind) {
+                return true;
+            }
+            long fingerprint = itemToBind == mBindingItem ? mBindingFingerprint : BoxItemFingerprint.compute(itemToBind);
+            return mItem.getId() != null && mItem.getId().equals(itemToBind.getId()) && mFingerprint == fingerprint;
+        }
+
 
         private static final String DESCRIPTION_TEMPLATE = "%s  • %s";
 
@@ -512,23 +669,7 @@ public class BoxItemAdapter extends RecyclerView.Adapter<BoxItemAdapter.BoxItemV
                 return;
             }
 
-            final BoxItem prevItem = holder.getItem();
-            boolean isSame = prevItem != null && prevItem.getId() != null &&
-                    prevItem.getId().equals(itemToBind.getId()) &&
-                    prevItem.getModifiedAt() != null &&
-                    prevItem.getModifiedAt().equals(itemToBind.getModifiedAt()) &&
-                    prevItem.getSize() != null &&
-                    prevItem.getSize().equals(itemToBind.getSize());
-
-            if (isSame) {
-                // Additional checks for folders
-                if(prevItem instanceof BoxFolder) {
-                    BoxFolder prevFolder = (BoxFolder) prevItem;
-                    BoxFolder folderToBind = (BoxFolder) itemToBind;
-
-                    isSame = prevFolder.getHasCollaborations() == folderToBind.getHasCollaborations();
-                }
-            }
+            boolean isSame = holder.isShowing(itemToBind);
 
             if (!isSame) {
                 holder.getNameView().setText(itemToBind.getName());
@@ -0,0 +1,167 @@
+package com.box.androidsdk.browse.adapters;
+
+import com.box.androidsdk.browse.models.BoxItemFingerprint;
+import com.box.androidsdk.content.models.BoxItem;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Immutable list of the items shown by a {@link BoxItemAdapter}, with the position of each item id and the
+ * {@link BoxItemFingerprint} of each item. The adapter publishes a new snapshot for every change, so it can be read
+ * from any thread without locking, looking up the position of an id does not scan the list, and fingerprints are
+ * computed once per item rather than on every bind.
+ */
+public final class BoxItemListSnapshot {
+
+    /**
+     * Snapshot without items.
+     */
+    public static final BoxItemListSnapshot EMPTY = new BoxItemListSnapshot(new ArrayList<BoxItem>(0), new long[0]);
+
+    private final List<BoxItem> mItems;
+    private final long[] mFingerprints;
+    private final HashMap<String, Integer> mPositions;
+
+    /**
+     * Instantiates a snapshot that takes ownership of the given list and fingerprints, which must not be changed
+     * afterwards.
+     *
+     * @param items        the items
+     * @param fingerprints the fingerprints of the items, in the same order
+     */
+    private BoxItemListSnapshot(ArrayList<BoxItem> items, long[] fingerprints) {
+        mItems = Collections.unmodifiableList(items);
+        mFingerprints = fingerprints;
+        mPositions = new HashMap<String, Integer>(Math.max(16, items.size() * 2));
+        for (int i = 0; i < items.size(); i++) {
+            String id = items.get(i).getId();
+            // The first position wins if an id is listed twice
+            if (id != null && !mPositions.containsKey(id)) {
+                mPositions.put(id, i);
+            }
+        }
+    }
+
+    /**
+     * Creates a snapshot of the given items.
+     *
+     * @param items the items, copied
+     * @return the snapshot
+     */
+    public static BoxItemListSnapshot of(Collection<BoxItem> items) {
+        if (items.isEmpty()) {
+            return EMPTY;
+        }
+        ArrayList<BoxItem> list = new ArrayList<BoxItem>(items);
+        return new BoxItemListSnapshot(list, computeFingerprints(list, 0, new long[list.size()]));
+    }
+
+    /**
+     * Gets the number of items.
+     *
+     * @return the size
+     */
+    public int size() {
+        return mItems.size();
+    }
+
+    /**
+     * Gets the item at a position.
+     *
+     * @param position the position
+     * @return the item, or null if the position is out of range
+     */
+    public BoxItem get(int position) {
+        return position >= 0 && position < mItems.size() ? mItems.get(position) : null;
+    }
+
+    /**
+     * Gets the fingerprint of the item at a position, see {@link BoxItemFingerprint}.
+     *
+     * @param position the position
+     * @return the fingerprint, or 0 if the position is out of range
+     */
+    public long getFingerprint(int position) {
+        return position >= 0 && position < mFingerprints.length ? mFingerprints[position] : 0;
+    }
+
+    /**
+     * Gets the position of an item id.
+     *
+     * @param id the box item id
+     * @return the position, or -1 if the id is not in the snapshot
+     */
+    public int indexOf(String id) {
+        Integer position = id != null ? mPositions.get(id) : null;
+        return position != null ? position : -1;
+    }
+
+    /**
+     * Gets the items.
+     *
+     * @return an unmodifiable list of the items
+     */
+    public List<BoxItem> getItems() {
+        return mItems;
+    }
+
+    /**
+     * Creates a snapshot with items appended to this one.
+     *
+     * @param items the items to append
+     * @return the new snapshot
+     */
+    BoxItemListSnapshot withAppended(List<BoxItem> items) {
+        ArrayList<BoxItem> list = new ArrayList<BoxItem>(mItems.size() + items.size());
+        list.addAll(mItems);
+        list.addAll(items);
+        long[] fingerprints = Arrays.copyOf(mFingerprints, list.size());
+        return new BoxItemListSnapshot(list, computeFingerprints(list, mItems.size(), fingerprints));
+    }
+
+    /**
+     * Creates a snapshot without the items with the given ids.
+     *
+     * @param ids the ids to remove
+     * @return the new snapshot
+     */
+    BoxItemListSnapshot withRemoved(Set<String> ids) {
+        ArrayList<BoxItem> list = new ArrayList<BoxItem>(mItems.size());
+        long[] fingerprints = new long[mItems.size()];
+        for (int i = 0; i < mItems.size(); i++) {
+            if (!ids.contains(mItems.get(i).getId())) {
+                fingerprints[list.size()] = mFingerprints[i];
+                list.add(mItems.get(i));
+            }
+        }
+        return list.isEmpty() ? EMPTY : new BoxItemListSnapshot(list, Arrays.copyOf(fingerprints, list.size()));
+    }
+
+    /**
+     * Creates a snapshot with the item at a position replaced.
+     *
+     * @param position the position
+     * @param item     the new item, with the same id as the one replaced
+     * @return the new snapshot
+     */
+    BoxItemListSnapshot withReplaced(int position, BoxItem item) {
+        ArrayList<BoxItem> list = new ArrayList<BoxItem>(mItems);
+        list.set(position, item);
+        long[] fingerprints = mFingerprints.clone();
+        fingerprints[position] = BoxItemFingerprint.compute(item);
+        return new BoxItemListSnapshot(list, fingerprints);
+    }
+
+    private static long[] computeFingerprints(List<BoxItem> items, int start, long[] fingerprints) {
+        for (int i = start; i < items.size(); i++) {
+            fingerprints[i] = BoxItemFingerprint.compute(items.get(i));
+        }
+        return fingerprints;
+    }
+}
@@ -16,7 +16,6 @@ import com.box.androidsdk.browse.filters.BoxItemFilter;
 import com.box.androidsdk.browse.fragments.BoxBrowseFragment;
 import com.box.androidsdk.browse.service.BrowseController;
 import com.box.androidsdk.browse.uidata.ThumbnailManager;
-import com.box.androidsdk.content.models.BoxFolder;
 import com.box.androidsdk.content.models.BoxItem;
 import com.box.androidsdk.content.models.BoxSession;
 import com.box.androidsdk.content.utils.SdkUtils;
@@ -88,23 +87,7 @@ public class BoxMediaItemAdapter extends BoxItemAdapter {
                 return;
             }
 
-            final BoxItem prevItem = holder.getItem();
-            boolean isSame = prevItem != null && prevItem.getId() != null &&
-                    prevItem.getId().equals(itemToBind.getId()) &&
-                    prevItem.getModifiedAt() != null &&
-                    prevItem.getModifiedAt().equals(itemToBind.getModifiedAt()) &&
-                    prevItem.getSize() != null &&
-                    prevItem.getSize().equals(itemToBind.getSize());
-
-            if (isSame) {
-                // Additional checks for folders
-                if(prevItem instanceof BoxFolder) {
-                    BoxFolder prevFolder = (BoxFolder) prevItem;
-                    BoxFolder folderToBind = (BoxFolder) itemToBind;
-
-                    isSame = prevFolder.getHasCollaborations() == folderToBind.getHasCollaborations();
-                }
-            }
+            boolean isSame = holder.isShowing(itemToBind);
 
             if (!isSame) {
                 mController.getThumbnailManager().loadMediaThumbnail(itemToBind, holder.getThumbView());
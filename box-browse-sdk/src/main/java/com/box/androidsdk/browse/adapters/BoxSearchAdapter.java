@@ -26,6 +26,9 @@ public class BoxSearchAdapter extends BoxItemAdapter {
     public static final String LOAD_MORE_ID = "com.box.androidsdk.browse.LOAD_MORE";
     protected static final int LOAD_MORE_VIEW_TYPE = 1;
     protected static final int RESULTS_HEADER_VIEW_TYPE = 2;
+    // The search shows at most one header and one load more row
+    protected static final long RESULTS_HEADER_STABLE_ID = Long.MIN_VALUE;
+    protected static final long LOAD_MORE_STABLE_ID = Long.MIN_VALUE + 1;
 
     /**
      * Instantiates a new Box search adapter.
@@ -56,7 +59,7 @@ public class BoxSearchAdapter extends BoxItemAdapter {
 
     @Override
     public int getItemViewType(int position) {
-        BoxItem item = mItems.get(position);
+        BoxItem item = mSnapshot.get(position);
 
         if (item instanceof ResultsHeader) {
             return RESULTS_HEADER_VIEW_TYPE;
@@ -69,6 +72,18 @@ public class BoxSearchAdapter extends BoxItemAdapter {
         return super.getItemViewType(position);
     }
 
+    @Override
+    protected long getStableId(BoxItem item) {
+        // The header carries the id of the folder searched, which may also be listed in the results
+        if (item instanceof ResultsHeader) {
+            return RESULTS_HEADER_STABLE_ID;
+        }
+        if (item instanceof LoadMoreItem) {
+            return LOAD_MORE_STABLE_ID;
+        }
+        return super.getStableId(item);
+    }
+
     /**
      * Add load more item.
      * Search results may be showing partial results at a time. In that case, it adds a LoadMore item
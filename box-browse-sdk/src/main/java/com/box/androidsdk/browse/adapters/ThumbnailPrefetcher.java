@@ -0,0 +1,112 @@
+package com.box.androidsdk.browse.adapters;
+
+import androidx.recyclerview.widget.GridLayoutManager;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.box.androidsdk.browse.uidata.ThumbnailManager;
+import com.box.androidsdk.content.BoxFutureTask;
+import com.box.androidsdk.content.models.BoxItem;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Scroll listener that downloads the thumbnails of the rows about to be scrolled into view, so that they are on disk
+ * by the time the rows are bound. Only the rows ahead of the viewport in the scroll direction are prefetched, and the
+ * outstanding downloads are cancelled when the direction reverses.
+ */
+public class ThumbnailPrefetcher extends RecyclerView.OnScrollListener {
+
+    private final BoxItemAdapter mAdapter;
+    private final ThumbnailManager mThumbnailManager;
+    private final int mWindow;
+
+    // Prefetch tasks by item id
+    private final HashMap<String, BoxFutureTask> mTasks = new HashMap<String, BoxFutureTask>();
+    private int mDirection;
+    private int mLastEdge = RecyclerView.NO_POSITION;
+
+    /**
+     * Instantiates a new Thumbnail prefetcher.
+     *
+     * @param adapter          the adapter of the items
+     * @param thumbnailManager the thumbnail manager to download with
+     * @param window           the number of rows ahead of the viewport to prefetch
+     */
+    public ThumbnailPrefetcher(BoxItemAdapter adapter, ThumbnailManager thumbnailManager, int window) {
+        mAdapter = adapter;
+        mThumbnailManager = thumbnailManager;
+        mWindow = window;
+    }
+
+    /**
+     * Gets the number of rows ahead of the viewport that are prefetched.
+     *
+     * @return the window
+     */
+    public int getWindow() {
+        return mWindow;
+    }
+
+    @Override
+    public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+        int delta = dy != 0 ? dy : dx;
+        if (delta == 0 || !(recyclerView.getLayoutManager() instanceof LinearLayoutManager)) {
+            return;
+        }
+        int direction = delta > 0 ? 1 : -1;
+        if (direction != mDirection) {
+            // The rows ahead are now behind, downloading them would only hold up the ones in the new direction.
+            cancelAll();
+            mDirection = direction;
+        }
+        LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+        int edge = direction > 0 ? layoutManager.findLastVisibleItemPosition() : layoutManager.findFirstVisibleItemPosition();
+        if (edge == RecyclerView.NO_POSITION || edge == mLastEdge) {
+            return;
+        }
+        mLastEdge = edge;
+        removeCompletedTasks();
+
+        int count = mWindow;
+        if (layoutManager instanceof GridLayoutManager) {
+            count *= ((GridLayoutManager) layoutManager).getSpanCount();
+        }
+        for (int i = 1; i <= count; i++) {
+            BoxItem item = mAdapter.getItem(edge + direction * i);
+            if (item == null) {
+                break;
+            }
+            if (!mTasks.containsKey(item.getId())) {
+                BoxFutureTask task = mThumbnailManager.prefetchThumbnail(item);
+                if (task != null) {
+                    mTasks.put(item.getId(), task);
+                }
+            }
+        }
+    }
+
+    /**
+     * Cancels all outstanding prefetch downloads, e.g. when the list is no longer shown.
+     */
+    public void cancelAll() {
+        for (BoxFutureTask task : mTasks.values()) {
+            if (!task.isDone()) {
+                mThumbnailManager.cancelPrefetch(task);
+            }
+        }
+        mTasks.clear();
+        mLastEdge = RecyclerView.NO_POSITION;
+    }
+
+    private void removeCompletedTasks() {
+        Iterator<Map.Entry<String, BoxFutureTask>> iterator = mTasks.entrySet().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().getValue().isDone()) {
+                iterator.remove();
+            }
+        }
+    }
+}
@@ -34,12 +34,17 @@ public class BoxBrowseFolderFragment extends BoxBrowseFragment {
     protected IntentFilter getIntentFilter() {
         IntentFilter filter = super.getIntentFilter();
         filter.addAction(BoxRequestsFolder.GetFolderWithAllItems.class.getName());
+        filter.addAction(BoxRequestsFolder.GetFolderInfo.class.getName());
+        filter.addAction(BoxRequestsFolder.GetFolderItems.class.getName());
         return filter;
     }
 
     @Override
     public void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        if (getArguments() != null) {
+            mPageSize = getArguments().getInt(ARG_LIMIT, 0);
+        }
         if (savedInstanceState != null) {
             mFolder = (BoxFolder) savedInstanceState.getSerializable(ARG_FOLDER);
         } else if (getArguments() != null) {
@@ -65,7 +70,10 @@ public class BoxBrowseFolderFragment extends BoxBrowseFragment {
                     final BoxFolder holder = (BoxFolder) intent.getResult();
                     if (holder != null) {
                         mProgress.setVisibility(View.GONE);
-                        onFolderFetched(holder);
+                        // A listing revalidated as unchanged is the cached one, which is already displayed.
+                        if (!intent.isNotModified() || mItems == null) {
+                            onFolderFetched(holder);
+                        }
                     }
                 } else {
                     mProgress.setVisibility(View.GONE);
@@ -83,7 +91,22 @@ public class BoxBrowseFolderFragment extends BoxBrowseFragment {
         if (mItems == null) {
             mProgress.setVisibility(View.VISIBLE);
         }
-        getController().execute(getController().getFolderWithAllItems(mFolder.getId()));
+        if (isPaged()) {
+            loadFirstPage();
+        } else {
+            getController().execute(getController().getFolderWithAllItems(mFolder.getId(), getFieldProfile()));
+        }
+    }
+
+    @Override
+    protected String getPagedFolderId() {
+        return mFolder != null ? mFolder.getId() : null;
+    }
+
+    @Override
+    protected void onFolderInfoFetched(@NonNull BoxFolder folder) {
+        mFolder = createFolderWithoutItems(folder);
+        notifyUpdateListeners();
     }
 
     /**
@@ -181,6 +204,18 @@ public class BoxBrowseFolderFragment extends BoxBrowseFragment {
             mArgs.putString(ARG_NAME, folderName);
         }
 
+        /**
+         * Load the items of the folder page by page instead of all at once. The first page is shown as soon
+         * as it is fetched and the following pages are fetched as the user scrolls towards the end of the list.
+         *
+         * @param pageSize the number of items per page, 0 to fetch all items in a single request
+         * @return the builder
+         */
+        public Builder setPageSize(int pageSize) {
+            mArgs.putInt(ARG_LIMIT, pageSize);
+            return this;
+        }
+
         @Override
         protected BoxBrowseFolderFragment getInstance() {
             return new BoxBrowseFolderFragment();
@@ -18,6 +18,7 @@ import com.box.androidsdk.browse.adapters.BoxMediaItemAdapter;
 import com.box.androidsdk.browse.filters.BoxItemFilter;
 import com.box.androidsdk.browse.models.BoxSessionDto;
 import com.box.androidsdk.browse.service.BoxResponseIntent;
+import com.box.androidsdk.browse.service.BrowseController;
 import com.box.androidsdk.browse.uidata.ThumbnailManager;
 import com.box.androidsdk.content.models.BoxFolder;
 import com.box.androidsdk.content.models.BoxItem;
@@ -40,6 +41,8 @@ import java.io.Serializable;
 public class BoxBrowseFolderGridFragment extends BoxBrowseFragment {
 
     public static final String ARG_FOLDER = "BoxBrowseFolderFragment.Folder";
+    // Number of grid rows ahead of the viewport whose thumbnails are prefetched
+    protected static final int DEFAULT_GRID_THUMBNAIL_PREFETCH_WINDOW = 3;
     protected BoxFolder mFolder = null;
 
 
@@ -83,18 +86,34 @@ public class BoxBrowseFolderGridFragment extends BoxBrowseFragment {
         return R.layout.box_browsesdk_fragment_browse_media;
     }
 
+    @Override
+    protected BrowseController.FieldProfile getDefaultFieldProfile() {
+        return BrowseController.FieldProfile.MEDIA_GRID;
+    }
+
+    @Override
+    protected int getDefaultThumbnailPrefetchWindow() {
+        // Rows of the grid hold several thumbnails each
+        return DEFAULT_GRID_THUMBNAIL_PREFETCH_WINDOW;
+    }
+
 
 
     @Override
     protected IntentFilter getIntentFilter() {
         IntentFilter filter = super.getIntentFilter();
         filter.addAction(BoxRequestsFolder.GetFolderWithAllItems.class.getName());
+        filter.addAction(BoxRequestsFolder.GetFolderInfo.class.getName());
+        filter.addAction(BoxRequestsFolder.GetFolderItems.class.getName());
         return filter;
     }
 
     @Override
     public void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        if (getArguments() != null) {
+            mPageSize = getArguments().getInt(ARG_LIMIT, 0);
+        }
         if (savedInstanceState != null) {
             mFolder = (BoxFolder) savedInstanceState.getSerializable(ARG_FOLDER);
         } else if (getArguments() != null) {
@@ -120,7 +139,10 @@ public class BoxBrowseFolderGridFragment extends BoxBrowseFragment {
                     final BoxFolder holder = (BoxFolder) intent.getResult();
                     if (holder != null) {
                         mProgress.setVisibility(View.GONE);
-                        onFolderFetched(holder);
+                        // A listing revalidated as unchanged is the cached one, which is already displayed.
+                        if (!intent.isNotModified() || mItems == null) {
+                            onFolderFetched(holder);
+                        }
                     }
                 } else {
                     mProgress.setVisibility(View.GONE);
@@ -138,7 +160,22 @@ public class BoxBrowseFolderGridFragment extends BoxBrowseFragment {
         if (mItems == null) {
             mProgress.setVisibility(View.VISIBLE);
         }
-        getController().execute(getController().getFolderWithAllItems(mFolder.getId()));
+        if (isPaged()) {
+            loadFirstPage();
+        } else {
+            getController().execute(getController().getFolderWithAllItems(mFolder.getId(), getFieldProfile()));
+        }
+    }
+
+    @Override
+    protected String getPagedFolderId() {
+        return mFolder != null ? mFolder.getId() : null;
+    }
+
+    @Override
+    protected void onFolderInfoFetched(@NonNull BoxFolder folder) {
+        mFolder = createFolderWithoutItems(folder);
+        notifyUpdateListeners();
     }
 
     /**
@@ -242,6 +279,18 @@ public class BoxBrowseFolderGridFragment extends BoxBrowseFragment {
             mArgs.putString(ARG_NAME, folderName);
         }
 
+        /**
+         * Load the items of the folder page by page instead of all at once. The first page is shown as soon
+         * as it is fetched and the following pages are fetched as the user scrolls towards the end of the list.
+         *
+         * @param pageSize the number of items per page, 0 to fetch all items in a single request
+         * @return the builder
+         */
+        public Builder setPageSize(int pageSize) {
+            mArgs.putInt(ARG_LIMIT, pageSize);
+            return this;
+        }
+
         @Override
         protected BoxBrowseFolderGridFragment getInstance() {
             return new BoxBrowseFolderGridFragment();
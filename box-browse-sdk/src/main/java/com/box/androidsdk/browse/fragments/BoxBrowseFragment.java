@@ -17,6 +17,9 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.widget.ImageView;
 import android.widget.ProgressBar;
+import android.widget.Toast;
+
+import androidx.annotation.NonNull;
 
 import androidx.fragment.app.Fragment;
 import androidx.fragment.app.FragmentActivity;
@@ -29,15 +32,19 @@ import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
 import com.box.androidsdk.browse.R;
 import com.box.androidsdk.browse.adapters.BoxItemAdapter;
+import com.box.androidsdk.browse.adapters.ThumbnailPrefetcher;
 import com.box.androidsdk.browse.filters.BoxItemFilter;
 import com.box.androidsdk.browse.models.BoxSessionDto;
 import com.box.androidsdk.browse.service.BoxBrowseController;
 import com.box.androidsdk.browse.service.BoxResponseIntent;
 import com.box.androidsdk.browse.service.BrowseController;
 import com.box.androidsdk.browse.service.CompletionListener;
+import com.box.androidsdk.content.models.BoxFolder;
 import com.box.androidsdk.content.models.BoxItem;
+import com.box.androidsdk.content.models.BoxIteratorItems;
 import com.box.androidsdk.content.models.BoxSession;
 import com.box.androidsdk.content.requests.BoxRequestsFile;
+import com.box.androidsdk.content.requests.BoxRequestsFolder;
 import com.box.androidsdk.content.utils.SdkUtils;
 
 import java.io.Serializable;
@@ -59,18 +66,39 @@ public abstract class BoxBrowseFragment extends Fragment implements SwipeRefresh
     protected static final String ARG_NAME = "argName";
     protected static final String ARG_LIMIT = "argLimit";
     protected static final String ARG_BOX_ITEM_FILTER = "argBoxBrowseFilter";
+    protected static final String ARG_FIELD_PROFILE = "argFieldProfile";
+    protected static final String ARG_THUMBNAIL_PREFETCH_WINDOW = "argThumbnailPrefetchWindow";
 
     protected static final String EXTRA_SECONDARY_ACTION_LISTENER = "com.box.androidsdk.browse.SECONDARYACTIONLISTENER";
     protected static final String EXTRA_MULTI_SELECT_HANDLER = "com.box.androidsdk.browse.MULTI_SELECT_HANDLER";
+    protected static final String EXTRA_ITEMS = "com.box.androidsdk.browse.ITEMS";
+    protected static final String EXTRA_PAGE_OFFSET = "com.box.androidsdk.browse.PAGE_OFFSET";
+    protected static final String EXTRA_HAS_MORE_PAGES = "com.box.androidsdk.browse.HAS_MORE_PAGES";
+
+    // Number of rows from the end of the list at which the next page should start loading
+    protected static final int DEFAULT_PREFETCH_DISTANCE = 10;
+
+    // Number of rows ahead of the viewport whose thumbnails are downloaded before they are bound
+    protected static final int DEFAULT_THUMBNAIL_PREFETCH_WINDOW = 10;
 
     protected ArrayList<BoxItem> mItems;
 
+    // Number of items per page, 0 means all items are fetched in a single request
+    protected int mPageSize;
+    // Offset of the next page to fetch
+    protected int mPageOffset;
+    protected boolean mHasMorePages;
+    // Page request currently in flight and the offset it was made with
+    protected BoxRequestsFolder.GetFolderItems mPageRequest;
+    private int mPageRequestOffset;
+
     protected OnItemClickListener mListener;
     protected OnSecondaryActionListener mSecondaryActionListener;
     protected MultiSelectHandler mMultiSelectHandler;
 
     protected BoxItemAdapter mAdapter;
     protected RecyclerView mItemsView;
+    protected ThumbnailPrefetcher mThumbnailPrefetcher;
     protected SwipeRefreshLayout mSwipeRefresh;
     protected ProgressBar mProgress;
 
@@ -100,8 +128,17 @@ public abstract class BoxBrowseFragment extends Fragment implements SwipeRefresh
             }
         }
     };
+    protected RecyclerView.OnScrollListener mNearEndScrollListener = new RecyclerView.OnScrollListener() {
+        @Override
+        public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+            if (dy > 0) {
+                checkScrolledNearEnd();
+            }
+        }
+    };
     private View mRootView;
     private BoxItemFilter mBoxItemFilter;
+    private BrowseController.FieldProfile mFieldProfile;
     private LocalBroadcastManager mLocalBroadcastmanager;
 
     /**
@@ -121,6 +158,7 @@ public abstract class BoxBrowseFragment extends Fragment implements SwipeRefresh
                 throw new IllegalArgumentException("A valid session or user id must be provided");
             }
             mBoxItemFilter = (BoxItemFilter) getArguments().getSerializable(ARG_BOX_ITEM_FILTER);
+            mFieldProfile = (BrowseController.FieldProfile) getArguments().getSerializable(ARG_FIELD_PROFILE);
         }
         if (savedInstanceState != null) {
             if (savedInstanceState.containsKey(EXTRA_SECONDARY_ACTION_LISTENER)) {
@@ -129,6 +167,12 @@ public abstract class BoxBrowseFragment extends Fragment implements SwipeRefresh
             if (savedInstanceState.containsKey(EXTRA_MULTI_SELECT_HANDLER)) {
                 mMultiSelectHandler = (MultiSelectHandler) savedInstanceState.getSerializable(EXTRA_MULTI_SELECT_HANDLER);
             }
+            if (savedInstanceState.containsKey(EXTRA_ITEMS)) {
+                // The pages listed so far are restored rather than fetched again, the next page continues from them.
+                mItems = (ArrayList<BoxItem>) savedInstanceState.getSerializable(EXTRA_ITEMS);
+                mPageOffset = savedInstanceState.getInt(EXTRA_PAGE_OFFSET);
+                mHasMorePages = savedInstanceState.getBoolean(EXTRA_HAS_MORE_PAGES);
+            }
         }
 
     }
@@ -180,6 +224,13 @@ public abstract class BoxBrowseFragment extends Fragment implements SwipeRefresh
         if (mMultiSelectHandler instanceof Serializable) {
             outState.putSerializable(EXTRA_MULTI_SELECT_HANDLER, (Serializable) mMultiSelectHandler);
         }
+        if (isPaged() && mItems != null && mPageOffset > 0) {
+            // The pages fetched so far are kept so that they are not requested again after a configuration change.
+            // Until the first page has been fetched there is nothing to keep, it is requested again.
+            outState.putSerializable(EXTRA_ITEMS, mItems);
+            outState.putInt(EXTRA_PAGE_OFFSET, mPageOffset);
+            outState.putBoolean(EXTRA_HAS_MORE_PAGES, mHasMorePages);
+        }
         super.onSaveInstanceState(outState);
     }
 
@@ -191,6 +242,37 @@ public abstract class BoxBrowseFragment extends Fragment implements SwipeRefresh
     protected void handleResponse(BoxResponseIntent intent) {
         if (intent.getAction().equals(BoxRequestsFile.DownloadThumbnail.class.getName())) {
             onDownloadedThumbnail(intent);
+        } else if (intent.getAction().equals(BoxRequestsFolder.GetFolderInfo.class.getName())) {
+            final BoxRequestsFolder.GetFolderInfo request =
+                    (BoxRequestsFolder.GetFolderInfo) intent.getRequest();
+            if (getPagedFolderId() != null && getPagedFolderId().equals(request.getId()) && intent.isSuccess()) {
+                onFolderInfoFetched((BoxFolder) intent.getResult());
+            }
+        } else if (intent.getAction().equals(BoxRequestsFolder.GetFolderItems.class.getName())) {
+            if (intent.getRequest() != mPageRequest) {
+                return;
+            }
+            if (intent.isFromCache()) {
+                // Only the first page is cached. It is shown until the network response replaces it, and the next
+                // page is not requested before then since the page request is still in flight.
+                if (mPageRequestOffset == 0 && intent.isSuccess() && intent.getResult() != null) {
+                    onCachedFirstPage((BoxIteratorItems) intent.getResult());
+                }
+                return;
+            }
+            mPageRequest = null;
+            if (mSwipeRefresh != null) {
+                mSwipeRefresh.setRefreshing(false);
+            }
+            mProgress.setVisibility(View.GONE);
+            if (intent.isSuccess()) {
+                onPageFetched((BoxIteratorItems) intent.getResult(), mPageRequestOffset);
+            } else {
+                checkConnectivity();
+                Toast.makeText(getContext(),
+                        R.string.box_browsesdk_problem_fetching_folder,
+                        Toast.LENGTH_LONG).show();
+            }
         }
     }
 
@@ -231,6 +313,11 @@ public abstract class BoxBrowseFragment extends Fragment implements SwipeRefresh
                 updateUI();
             }
 
+            @Override
+            public void onItemRangeInserted(int positionStart, int itemCount) {
+                updateUI();
+            }
+
             @Override
             public void onItemRangeRemoved(int positionStart, int itemCount) {
                 updateUI();
@@ -238,6 +325,11 @@ public abstract class BoxBrowseFragment extends Fragment implements SwipeRefresh
         });
 
         mItemsView.setAdapter(mAdapter);
+        mItemsView.addOnScrollListener(mNearEndScrollListener);
+        if (getThumbnailPrefetchWindow() > 0 && getController().getThumbnailManager() != null) {
+            mThumbnailPrefetcher = new ThumbnailPrefetcher(mAdapter, getController().getThumbnailManager(), getThumbnailPrefetchWindow());
+            mItemsView.addOnScrollListener(mThumbnailPrefetcher);
+        }
         if (getMultiSelectHandler() != null) {
             getMultiSelectHandler().setItemAdapter(mAdapter);
         }
@@ -258,6 +350,142 @@ public abstract class BoxBrowseFragment extends Fragment implements SwipeRefresh
      */
     protected abstract void loadItems();
 
+    /**
+     * Called when the last visible row is within {@link #getPrefetchDistance()} rows of the end of the list.
+     * Fetches the next page of a paged folder, fragments that load their items incrementally in another way
+     * should fetch their next items here.
+     */
+    protected void onScrolledNearEnd() {
+        if (isPaged() && mHasMorePages && mPageRequest == null) {
+            loadPage(mPageOffset);
+        }
+    }
+
+    /**
+     * Gets the number of rows from the end of the list at which {@link #onScrolledNearEnd()} is called.
+     *
+     * @return the prefetch distance
+     */
+    protected int getPrefetchDistance() {
+        return isPaged() ? Math.max(DEFAULT_PREFETCH_DISTANCE, mPageSize / 2) : DEFAULT_PREFETCH_DISTANCE;
+    }
+
+    /**
+     * Gets the id of the folder listed by this fragment, whose items are fetched page by page when a page size
+     * is set.
+     *
+     * @return the folder id, or null if this fragment does not list a folder
+     */
+    protected String getPagedFolderId() {
+        return null;
+    }
+
+    /**
+     * Returns true if the items of the folder are fetched page by page.
+     *
+     * @return true if a page size has been set for a folder and the controller supports paging
+     */
+    protected boolean isPaged() {
+        return mPageSize > 0 && getPagedFolderId() != null && getController().supportsPaging();
+    }
+
+    /**
+     * Fetches the folder info and the first page of its items.
+     */
+    protected void loadFirstPage() {
+        getController().execute(getController().getFolderInfoRequest(getPagedFolderId()));
+        loadPage(0);
+    }
+
+    /**
+     * Fetches the page of items starting at the given offset.
+     *
+     * @param offset the index of the first item of the page
+     */
+    protected void loadPage(int offset) {
+        mPageRequestOffset = offset;
+        mPageRequest = getController().getFolderItemsRequest(getPagedFolderId(), offset, mPageSize, getFieldProfile());
+        // Later pages are requested before the user reaches them, the first one is waited on.
+        getController().execute(mPageRequest, offset == 0 ?
+                BrowseController.Priority.USER_INITIATED :
+                BrowseController.Priority.PREFETCH);
+    }
+
+    /**
+     * On page fetched. The first page replaces the displayed items, following pages are appended.
+     *
+     * @param items  the items of the page
+     * @param offset the offset the page was requested with
+     */
+    protected void onPageFetched(@NonNull BoxIteratorItems items, int offset) {
+        ArrayList<BoxItem> entries = items.getEntries() != null ? items.getEntries() : new ArrayList<BoxItem>();
+        if (offset == 0) {
+            updateItems(entries);
+        } else {
+            appendItems(entries);
+        }
+        mPageOffset = offset + entries.size();
+        mHasMorePages = entries.size() > 0 && items.fullSize() != null && mPageOffset < items.fullSize();
+        // The fetched page may not fill the screen, for instance when most of its items are filtered out.
+        checkScrolledNearEnd();
+    }
+
+    /**
+     * Called when the cached first page of the folder is available, before the first page is fetched.
+     *
+     * @param items the cached items of the first page
+     */
+    protected void onCachedFirstPage(@NonNull BoxIteratorItems items) {
+        if (items.getEntries() != null) {
+            updateItems(items.getEntries());
+        }
+    }
+
+    /**
+     * Called when the info of the paged folder has been fetched, without its items.
+     *
+     * @param folder the folder
+     */
+    protected void onFolderInfoFetched(@NonNull BoxFolder folder) {
+    }
+
+    /**
+     * Gets the number of rows ahead of the viewport, in the scroll direction, whose thumbnails are downloaded before
+     * they are bound. Return 0 to disable thumbnail prefetching.
+     *
+     * @return the thumbnail prefetch window
+     */
+    protected int getThumbnailPrefetchWindow() {
+        if (getArguments() != null && getArguments().containsKey(ARG_THUMBNAIL_PREFETCH_WINDOW)) {
+            return getArguments().getInt(ARG_THUMBNAIL_PREFETCH_WINDOW);
+        }
+        return getDefaultThumbnailPrefetchWindow();
+    }
+
+    /**
+     * Gets the thumbnail prefetch window used when none was set through the builder.
+     *
+     * @return the default thumbnail prefetch window
+     */
+    protected int getDefaultThumbnailPrefetchWindow() {
+        return DEFAULT_THUMBNAIL_PREFETCH_WINDOW;
+    }
+
+    /**
+     * Calls {@link #onScrolledNearEnd()} if the end of the list is visible or about to become visible.
+     */
+    protected void checkScrolledNearEnd() {
+        if (mItemsView == null || mAdapter == null) {
+            return;
+        }
+        if (mItemsView.getLayoutManager() instanceof LinearLayoutManager) {
+            int lastVisible = ((LinearLayoutManager) mItemsView.getLayoutManager()).findLastVisibleItemPosition();
+            if (lastVisible >= mAdapter.getItemCount() - getPrefetchDistance()) {
+                onScrolledNearEnd();
+            }
+        }
+    }
+
     private void updateUI() {
         if (mItems == null) {
             // UI should not be updated before the first load
@@ -401,6 +629,25 @@ public abstract class BoxBrowseFragment extends Fragment implements SwipeRefresh
         return mBoxItemFilter;
     }
 
+    /**
+     * Gets the field profile used when requesting items. Defaults to {@link #getDefaultFieldProfile()}
+     * unless one was passed during creation.
+     *
+     * @return the field profile
+     */
+    public BrowseController.FieldProfile getFieldProfile() {
+        return mFieldProfile != null ? mFieldProfile : getDefaultFieldProfile();
+    }
+
+    /**
+     * Gets the field profile matching the fields rendered by the adapter of this fragment.
+     *
+     * @return the default field profile
+     */
+    protected BrowseController.FieldProfile getDefaultFieldProfile() {
+        return BrowseController.FieldProfile.LIST;
+    }
+
     /**
      * Call on loading error and refresh if loss of connectivity is the suspect.
      */
@@ -433,6 +680,39 @@ public abstract class BoxBrowseFragment extends Fragment implements SwipeRefresh
         }
     }
 
+    /**
+     * Appends items to the list of items that the adapter is bound to. Items already listed are skipped, as offset
+     * pages shift when the folder changes between them.
+     *
+     * @param items the items to append
+     */
+    protected void appendItems(final ArrayList<BoxItem> items) {
+        FragmentActivity activity = getActivity();
+        if (activity == null) {
+            return;
+        }
+
+        if (mItems == null) {
+            mItems = new ArrayList<BoxItem>();
+        }
+        HashSet<String> listedIds = new HashSet<String>(mItems.size() + items.size());
+        for (BoxItem item : mItems) {
+            listedIds.add(item.getId());
+        }
+        ArrayList<BoxItem> filteredItems = new ArrayList<BoxItem>();
+        for (BoxItem item : items) {
+            if ((getItemFilter() != null && !getItemFilter().accept(item)) || !listedIds.add(item.getId())) {
+                continue;
+            }
+            filteredItems.add(item);
+        }
+
+        mItems.addAll(filteredItems);
+        if (mAdapter != null) {
+            mAdapter.add(filteredItems);
+        }
+    }
+
     /**
      * Handles showing new thumbnails after they have been downloaded.
      *
@@ -573,7 +853,7 @@ public abstract class BoxBrowseFragment extends Fragment implements SwipeRefresh
             int totalItemCount = mItemAdapter.get().getItemCount();
             if (mSelectedItems.size() < totalItemCount) {
                 int originalSize = mSelectedItems.size();
-                for (BoxItem boxItem : mItemAdapter.get().getItems()) {
+                for (BoxItem boxItem : mItemAdapter.get().getSnapshot().getItems()) {
                     if (boxItem != null && isSelectable(boxItem) && !isItemSelected(boxItem)) {
                         mSelectedItems.add(boxItem);
                         handleItemSelected(boxItem, true, this);
@@ -648,6 +928,14 @@ public abstract class BoxBrowseFragment extends Fragment implements SwipeRefresh
 
     }
 
+    @Override
+    public void onDestroyView() {
+        if (mThumbnailPrefetcher != null) {
+            mThumbnailPrefetcher.cancelAll();
+        }
+        super.onDestroyView();
+    }
+
     @Override
     public void onDestroy() {
         synchronized (mUpdateListeners) {
@@ -769,6 +1057,26 @@ public abstract class BoxBrowseFragment extends Fragment implements SwipeRefresh
             mArgs.putSerializable(ARG_BOX_ITEM_FILTER, filter);
         }
 
+        /**
+         * Set the field profile used when requesting items. Use {@link BrowseController.FieldProfile#PICKER}
+         * when the items shown are returned to a caller that needs more than what is displayed.
+         *
+         * @param profile the field profile
+         */
+        public void setFieldProfile(BrowseController.FieldProfile profile) {
+            mArgs.putSerializable(ARG_FIELD_PROFILE, profile);
+        }
+
+        /**
+         * Set the number of rows ahead of the viewport whose thumbnails are downloaded while scrolling, before the
+         * rows are bound. 0 disables thumbnail prefetching.
+         *
+         * @param window the thumbnail prefetch window
+         */
+        public void setThumbnailPrefetchWindow(int window) {
+            mArgs.putInt(ARG_THUMBNAIL_PREFETCH_WINDOW, window);
+        }
+
         /**
          * Returns an empty instance of the fragment to build
          *
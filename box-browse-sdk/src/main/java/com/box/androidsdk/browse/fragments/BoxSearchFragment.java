@@ -15,6 +15,7 @@ import androidx.fragment.app.FragmentActivity;
 import com.box.androidsdk.browse.R;
 import com.box.androidsdk.browse.activities.FilterSearchResults;
 import com.box.androidsdk.browse.adapters.BoxItemAdapter;
+import com.box.androidsdk.browse.adapters.BoxItemListSnapshot;
 import com.box.androidsdk.browse.adapters.BoxSearchAdapter;
 import com.box.androidsdk.browse.adapters.ResultsHeader;
 import com.box.androidsdk.browse.models.BoxSearchFilters;
@@ -252,7 +253,7 @@ public class BoxSearchFragment extends BoxBrowseFragment {
      */
     protected void search() {
         if (mSearchQuery != null && !mSearchQuery.equals("")) {
-            mRequest = getController().getSearchRequest(mSearchQuery);
+            mRequest = getController().getSearchRequest(mSearchQuery, getFieldProfile());
             mAdapter.removeAll();
             loadItems();
             mItems = null;
@@ -389,13 +390,9 @@ public class BoxSearchFragment extends BoxBrowseFragment {
         final int startRange = mAdapter.getItemCount() > 0 ? mAdapter.getItemCount() - 1: 0;
 
         ArrayList<BoxItem> filteredItems = new ArrayList<BoxItem>();
-        ArrayList<BoxItem> adapterItems = mAdapter.getItems();
-        HashSet<String> itemIdsInAdapter = new HashSet<String>(adapterItems.size());
-        for (BoxItem item : adapterItems){
-            itemIdsInAdapter.add(item.getId());
-        }
+        BoxItemListSnapshot adapterItems = mAdapter.getSnapshot();
         for (BoxItem item : items) {
-            if ((getItemFilter() != null && !getItemFilter().accept(item)) || itemIdsInAdapter.contains(item.getId())) {
+            if ((getItemFilter() != null && !getItemFilter().accept(item)) || adapterItems.indexOf(item.getId()) >= 0) {
                 continue;
             }
             filteredItems.add(item);
@@ -0,0 +1,67 @@
+package com.box.androidsdk.browse.models;
+
+import com.box.androidsdk.content.models.BoxFile;
+import com.box.androidsdk.content.models.BoxFolder;
+import com.box.androidsdk.content.models.BoxItem;
+
+/**
+ * Hash over the fields of a {@link BoxItem} that are rendered by the browse adapters: type, id, name, modification
+ * date, size, path, the sharing state of folders and the sha1 and preview permission of files. Two items with the same
+ * id and fingerprint render the same, so comparing them costs a single long comparison instead of comparing the JSON
+ * backing them.
+ *
+ * Fingerprints are computed once per item by {@link com.box.androidsdk.browse.adapters.BoxItemListSnapshot} and kept
+ * alongside it, so the adapter diff and the ui thread only compare them.
+ */
+public final class BoxItemFingerprint {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private BoxItemFingerprint() {
+    }
+
+    /**
+     * Computes the fingerprint of an item.
+     *
+     * @param item the item
+     * @return the fingerprint
+     */
+    public static long compute(BoxItem item) {
+        long hash = FNV_OFFSET_BASIS;
+        hash = mix(hash, item.getClass().getName());
+        hash = mix(hash, item.getId());
+        hash = mix(hash, item.getName());
+        hash = mix(hash, item.getModifiedAt() != null ? item.getModifiedAt().getTime() : 0);
+        hash = mix(hash, item.getSize() != null ? item.getSize() : -1);
+        if (item.getPathCollection() != null) {
+            for (BoxFolder folder : item.getPathCollection()) {
+                hash = mix(hash, folder.getName());
+            }
+        }
+        if (item instanceof BoxFolder) {
+            hash = mix(hash, String.valueOf(((BoxFolder) item).getHasCollaborations()));
+            hash = mix(hash, String.valueOf(((BoxFolder) item).getIsExternallyOwned()));
+        } else if (item instanceof BoxFile) {
+            hash = mix(hash, ((BoxFile) item).getSha1());
+            hash = mix(hash, item.getPermissions() != null && item.getPermissions().contains(BoxItem.Permission.CAN_PREVIEW) ? 1 : 0);
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, String value) {
+        if (value == null) {
+            return mix(hash, -1);
+        }
+        // The chars are hashed themselves, a collision of the 32 bit String.hashCode() would hide a changed field
+        for (int i = 0; i < value.length(); i++) {
+            hash = mix(hash, value.charAt(i));
+        }
+        // The length ends the string, so that the fields "ab", "c" and "a", "bc" hash differently
+        return mix(hash, value.length());
+    }
+
+    private static long mix(long hash, long value) {
+        return (hash ^ value) * FNV_PRIME;
+    }
+}
@@ -6,6 +6,8 @@ import android.text.TextUtils;
 
 import androidx.collection.LruCache;
 
+import com.box.androidsdk.browse.uidata.BitmapPool;
+import com.box.androidsdk.browse.uidata.ThumbnailCacheKey;
 import com.box.androidsdk.browse.uidata.ThumbnailManager;
 import com.box.androidsdk.content.BoxApiBookmark;
 import com.box.androidsdk.content.BoxApiFile;
@@ -18,26 +20,33 @@ import com.box.androidsdk.content.models.BoxBookmark;
 import com.box.androidsdk.content.models.BoxFile;
 import com.box.androidsdk.content.models.BoxFolder;
 import com.box.androidsdk.content.models.BoxItem;
+import com.box.androidsdk.content.models.BoxIteratorItems;
 import com.box.androidsdk.content.models.BoxRepresentation;
 import com.box.androidsdk.content.models.BoxSession;
 import com.box.androidsdk.content.models.BoxUser;
 import com.box.androidsdk.content.requests.BoxCacheableRequest;
 import com.box.androidsdk.content.requests.BoxRequest;
+import com.box.androidsdk.content.requests.BoxRequestItem;
 import com.box.androidsdk.content.requests.BoxRequestUpdateSharedItem;
 import com.box.androidsdk.content.requests.BoxRequestsFile;
 import com.box.androidsdk.content.requests.BoxRequestsFolder;
 import com.box.androidsdk.content.requests.BoxRequestsSearch;
+import com.box.androidsdk.content.requests.BoxResponse;
 import com.box.androidsdk.content.utils.BoxLogUtils;
+import com.box.androidsdk.content.utils.SdkUtils;
 import com.eclipsesource.json.JsonArray;
 
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.net.HttpURLConnection;
 import java.util.ArrayList;
-import java.util.concurrent.LinkedBlockingDeque;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
 
 /***
  * Default implementation for the {@link BrowseController}.
@@ -48,10 +57,58 @@ public class BoxBrowseController implements BrowseController {
     private static final int MAX_RECENT_SEARCHES = 10;
     private static final String TAG = BoxBrowseController.class.getName();
 
+    // Fields read by BoxItemAdapter and BoxSearchAdapter when binding a row
+    protected static final String[] LIST_FIELDS = new String[]{
+            BoxItem.FIELD_TYPE,
+            BoxItem.FIELD_ID,
+            BoxItem.FIELD_NAME,
+            BoxItem.FIELD_ETAG,
+            BoxItem.FIELD_MODIFIED_AT,
+            BoxItem.FIELD_SIZE,
+            BoxItem.FIELD_PERMISSIONS,
+            BoxItem.FIELD_PATH_COLLECTION,
+            BoxFile.FIELD_SHA1,
+            BoxFolder.FIELD_HAS_COLLABORATIONS,
+            BoxFolder.FIELD_IS_EXTERNALLY_OWNED
+    };
+
+    // Fields read by BoxMediaItemAdapter when binding a tile
+    protected static final String[] MEDIA_GRID_FIELDS = new String[]{
+            BoxItem.FIELD_TYPE,
+            BoxItem.FIELD_ID,
+            BoxItem.FIELD_NAME,
+            BoxItem.FIELD_ETAG,
+            BoxItem.FIELD_MODIFIED_AT,
+            BoxItem.FIELD_SIZE,
+            BoxItem.FIELD_PERMISSIONS,
+            BoxFile.FIELD_SHA1,
+            BoxFile.FIELD_REPRESENTATIONS
+    };
+
+    // Representations listed along with the media grid fields, one hint group each so that all available ones are
+    // returned: jpg at the sizes tiles are shown at on common densities, and png for files without a jpg. The
+    // thumbnail manager picks the smallest one covering a tile and shows a smaller one already in memory meanwhile.
+    protected static final String[] MEDIA_GRID_REPRESENTATION_HINTS = new String[]{
+            BoxRepresentation.TYPE_JPG + "?dimensions=160x160",
+            BoxRepresentation.TYPE_JPG + "?dimensions=320x320",
+            BoxRepresentation.TYPE_JPG + "?dimensions=1024x1024",
+            BoxRepresentation.TYPE_PNG + "?dimensions=1024x1024"
+    };
+
+    // List fields plus the ones the picker activities hand back to their caller
+    protected static final String[] PICKER_FIELDS = appendFields(LIST_FIELDS,
+            BoxItem.FIELD_SHARED_LINK,
+            BoxItem.FIELD_PARENT,
+            BoxItem.FIELD_CREATED_AT,
+            BoxItem.FIELD_DESCRIPTION);
+
+    // Number of items whose etags are compared with the cached listing when revalidating it
+    protected static final int REVALIDATION_PROBE_LIMIT = 100;
 
     // Static executors so that requests can be retained though activity/fragment lifecycle
-    private static ThreadPoolExecutor mApiExecutor;
-    private static ThreadPoolExecutor mThumbnailExecutor;
+    private static BoxBrowseExecutorConfig mExecutorConfig = BoxBrowseExecutorConfig.createDefault();
+    private static final EnumMap<BoxBrowseExecutorConfig.Pool, ThreadPoolExecutor> mExecutors =
+            new EnumMap<BoxBrowseExecutorConfig.Pool, ThreadPoolExecutor>(BoxBrowseExecutorConfig.Pool.class);
 
     protected final BoxApiFile mFileApi;
     protected final BoxApiFolder mFolderApi;
@@ -60,12 +117,27 @@ public class BoxBrowseController implements BrowseController {
     protected final BoxSession mSession;
     protected final ThumbnailManager mThumbnailManager;
     protected BoxFutureTask.OnCompletedListener mListener;
+    // Keys of the requests created by this controller that may share a call in flight
+    private final WeakHashMap<BoxRequest, String> mInFlightKeys = new WeakHashMap<BoxRequest, String>();
+    // Requests waiting on the call in flight for each key, shared by all controllers
+    private static final HashMap<String, ArrayList<InFlightFollower>> mInFlightCalls = new HashMap<String, ArrayList<InFlightFollower>>();
     protected BoxFutureTask.OnCompletedListener mCachedListener;
     protected static final int BITMAP_CACHE_DEFAULT_SIZE = 10000;
 
+    // Evicted thumbnails are pooled for reuse, up to a quarter of the size of the cache
+    protected BitmapPool mBitmapPool = new BitmapPool(BITMAP_CACHE_DEFAULT_SIZE * 1024L / 4);
+    protected ThumbnailLruCache mThumbnailMemoryCache = new ThumbnailLruCache(BITMAP_CACHE_DEFAULT_SIZE);
+    /**
+     * @deprecated inert, see {@link #getThumbnailCache()}.
+     */
+    @Deprecated
     protected BitmapLruCache mThumbnailCache = new BitmapLruCache(BITMAP_CACHE_DEFAULT_SIZE);
     protected LruCache<Integer, Bitmap> mIconResCache = new LruCache<Integer, Bitmap>(10);
 
+    // Disk caches by thumbnail directory, shared by the controllers using the same directory
+    private static final HashMap<File, BoxThumbnailDiskCache> mThumbnailDiskCaches = new HashMap<File, BoxThumbnailDiskCache>();
+    private BoxThumbnailDiskCache mThumbnailDiskCache;
+
     /**
      * Instantiates a new Box browse controller.
      *
@@ -86,6 +158,8 @@ public class BoxBrowseController implements BrowseController {
         // Use 1/8th of the available memory for this memory cache.
         final int cacheSize = maxMemory / 8;
         if (cacheSize < BITMAP_CACHE_DEFAULT_SIZE){
+            mBitmapPool = new BitmapPool(cacheSize * 1024L / 4);
+            mThumbnailMemoryCache = new ThumbnailLruCache(cacheSize);
             mThumbnailCache = new BitmapLruCache(cacheSize);
         }
     }
@@ -115,8 +189,40 @@ public class BoxBrowseController implements BrowseController {
 
     @Override
     public BoxRequestsFolder.GetFolderWithAllItems getFolderWithAllItems(String folderId) {
-        return mFolderApi.getFolderWithAllItems(folderId)
-                .setFields(BoxFolder.ALL_FIELDS);
+        return bindCacheFields(setInFlightKey(mFolderApi.getFolderWithAllItems(folderId)
+                .setFields(BoxFolder.ALL_FIELDS), folderId, BoxFolder.ALL_FIELDS), BoxFolder.ALL_FIELDS);
+    }
+
+    @Override
+    public BoxRequestsFolder.GetFolderWithAllItems getFolderWithAllItems(String folderId, FieldProfile profile) {
+        String[] fields = appendFields(getFields(profile), BoxFolder.FIELD_ITEM_COLLECTION);
+        return bindCacheFields(setInFlightKey(setRepresentationHints(mFolderApi.getFolderWithAllItems(folderId)
+                .setFields(fields), profile), folderId, fields), fields);
+    }
+
+    @Override
+    public boolean supportsPaging() {
+        return true;
+    }
+
+    @Override
+    public BoxRequestsFolder.GetFolderInfo getFolderInfoRequest(String folderId) {
+        // The item collection is left out on purpose, items are fetched page by page.
+        return setInFlightKey(mFolderApi.getInfoRequest(folderId)
+                .setFields(getFields(FieldProfile.PICKER)), folderId, getFields(FieldProfile.PICKER));
+    }
+
+    @Override
+    public BoxRequestsFolder.GetFolderItems getFolderItemsRequest(String folderId, int offset, int limit, FieldProfile profile) {
+        BoxRequestsFolder.GetFolderItems request = setInFlightKey(setRepresentationHints(mFolderApi.getItemsRequest(folderId)
+                .setOffset(offset)
+                .setLimit(limit)
+                .setFields(getFields(profile)), profile), folderId + ":" + offset + ":" + limit, getFields(profile));
+        if (offset == 0 && BoxConfig.getCache() instanceof BoxSimpleLocalCache) {
+            // The first page is cached so that it can be shown while it is fetched again, later pages are not.
+            ((BoxSimpleLocalCache) BoxConfig.getCache()).bindFirstPage(request, getFields(profile));
+        }
+        return request;
     }
 
     @Override
@@ -124,6 +230,24 @@ public class BoxBrowseController implements BrowseController {
         return mSearchApi.getSearchRequest(query).setFields(BoxFolder.ALL_FIELDS);
     }
 
+    @Override
+    public BoxRequestsSearch.Search getSearchRequest(String query, FieldProfile profile) {
+        return mSearchApi.getSearchRequest(query).setFields(getFields(profile));
+    }
+
+    @Override
+    public String[] getFields(FieldProfile profile) {
+        switch (profile) {
+            case MEDIA_GRID:
+                return MEDIA_GRID_FIELDS;
+            case PICKER:
+                return PICKER_FIELDS;
+            case LIST:
+            default:
+                return LIST_FIELDS;
+        }
+    }
+
     @Override
     public BoxRequestsFile.DownloadThumbnail getThumbnailRequest(String fileId, File downloadFile) {
         try {
@@ -162,31 +286,332 @@ public class BoxBrowseController implements BrowseController {
 
     @Override
     public void execute(BoxRequest request) {
+        execute(request, getDefaultPriority(request));
+    }
+
+    @Override
+    public void execute(BoxRequest request, Priority priority) {
         if (request == null) {
             return;
         }
-        if (BoxConfig.getCache() != null && request instanceof BoxCacheableRequest){
-            try {
-                BoxFutureTask cacheTask = ((BoxCacheableRequest) request).toTaskForCachedResult();
-                if (mCachedListener != null){
-                    cacheTask.addOnCompletedListener(mCachedListener);
+        String inFlightKey = getInFlightKey(request);
+        if (inFlightKey != null && joinInFlightCall(inFlightKey, request)) {
+            return;
+        }
+        BoxFutureTask.OnCompletedListener inFlightListener = inFlightKey != null ? createInFlightListener(inFlightKey) : null;
+        try {
+            if (BoxConfig.getCache() != null && request instanceof BoxCacheableRequest){
+                if (BoxConfig.getCache() instanceof BoxDiskLocalCache) {
+                    // Persisted listings are keyed by user, which the request itself does not carry.
+                    ((BoxDiskLocalCache) BoxConfig.getCache()).bindUser(request, mSession.getUserId());
+                }
+                try {
+                    BoxFutureTask cacheTask = ((BoxCacheableRequest) request).toTaskForCachedResult();
+                    if (mCachedListener != null){
+                        cacheTask.addOnCompletedListener(mCachedListener);
+                    }
+                    execute(getExecutor(BoxBrowseExecutorConfig.Pool.CACHE_READ), cacheTask, priority);
+                } catch (BoxException e){
+                    BoxLogUtils.e("cache task error ", e);
+                }
+
+            }
+            BoxFutureTask task = BoxConfig.getCache() != null && request instanceof BoxRequestsFolder.GetFolderWithAllItems ?
+                    createRevalidationTask((BoxRequestsFolder.GetFolderWithAllItems) request) :
+                    request.toTask();
+            if (inFlightListener != null) {
+                // Added first so that requests joining later are either fanned out to or start a call of their own.
+                task.addOnCompletedListener(inFlightListener);
+            }
+            if (mListener != null) {
+                task.addOnCompletedListener(mListener);
+            }
+
+            execute(getExecutor(getPool(request)), task, priority);
+        } catch (RejectedExecutionException e) {
+            // The call never starts, e.g. because the executor was shut down, so release the key and the requests
+            // that joined it rather than leaving them waiting for a response that never comes.
+            if (inFlightListener != null) {
+                inFlightListener.onCompleted(new BoxResponse(null, e, request));
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the key identifying requests that return the same response, so that identical requests executed while one
+     * is in flight share its network call. Folder requests are identified by folder id and fields, which is only known
+     * for requests created by this controller. Downloads are identified by their target file, which is named after
+     * the file id, sha1 and size.
+     *
+     * @param request the request
+     * @return the key, or null if the request should always make its own call
+     */
+    protected String getInFlightKey(BoxRequest request) {
+        String key = null;
+        if (request instanceof BoxRequestsFile.DownloadThumbnail && ((BoxRequestsFile.DownloadThumbnail) request).getTarget() != null) {
+            key = ((BoxRequestsFile.DownloadThumbnail) request).getTarget().getAbsolutePath();
+        } else if (request instanceof BoxRequestsFile.DownloadRepresentation && ((BoxRequestsFile.DownloadRepresentation) request).getTarget() != null) {
+            key = ((BoxRequestsFile.DownloadRepresentation) request).getTarget().getAbsolutePath();
+        } else {
+            synchronized (mInFlightKeys) {
+                key = mInFlightKeys.get(request);
+            }
+        }
+        // Calls are shared between controllers, but never between users.
+        return key != null ? mSession.getUserId() + ":" + request.getClass().getName() + ":" + key : null;
+    }
+
+    /**
+     * Adds the representation hints of a field profile to a folder request, see
+     * {@link #MEDIA_GRID_REPRESENTATION_HINTS}, so that the listed files come with the representations their tiles are
+     * loaded from.
+     *
+     * @param request the request
+     * @param profile the field profile the request was created with
+     * @return the request
+     */
+    protected <R extends BoxRequestItem> R setRepresentationHints(R request, FieldProfile profile) {
+        if (profile == FieldProfile.MEDIA_GRID) {
+            for (String hint : MEDIA_GRID_REPRESENTATION_HINTS) {
+                request.addRepresentationHintGroup(hint);
+            }
+        }
+        return request;
+    }
+
+    private BoxRequestsFolder.GetFolderWithAllItems bindCacheFields(BoxRequestsFolder.GetFolderWithAllItems request, String[] fields) {
+        // Listings are cached per set of fields, so that a listing of one profile is not served to another.
+        if (BoxConfig.getCache() instanceof BoxSimpleLocalCache) {
+            ((BoxSimpleLocalCache) BoxConfig.getCache()).bindFields(request, fields);
+        }
+        return request;
+    }
+
+    private <R extends BoxRequest> R setInFlightKey(R request, String id, String[] fields) {
+        synchronized (mInFlightKeys) {
+            mInFlightKeys.put(request, id + ":" + TextUtils.join(",", fields));
+        }
+        return request;
+    }
+
+    /**
+     * Adds the request to the call in flight for the key, or registers a new call if there is none.
+     *
+     * @return true if the request joined a call in flight
+     */
+    private boolean joinInFlightCall(String key, BoxRequest request) {
+        synchronized (mInFlightCalls) {
+            ArrayList<InFlightFollower> followers = mInFlightCalls.get(key);
+            if (followers == null) {
+                mInFlightCalls.put(key, new ArrayList<InFlightFollower>());
+                return false;
+            }
+            followers.add(new InFlightFollower(request, mListener));
+            return true;
+        }
+    }
+
+    private static BoxFutureTask.OnCompletedListener createInFlightListener(final String key) {
+        return new BoxFutureTask.OnCompletedListener() {
+            @Override
+            public void onCompleted(BoxResponse response) {
+                ArrayList<InFlightFollower> followers;
+                synchronized (mInFlightCalls) {
+                    followers = mInFlightCalls.remove(key);
+                }
+                if (followers == null) {
+                    return;
+                }
+                for (InFlightFollower follower : followers) {
+                    if (follower.mListener != null) {
+                        follower.mListener.onCompleted(response instanceof BoxNotModifiedResponse ?
+                                new BoxNotModifiedResponse(response.getResult(), follower.mRequest) :
+                                new BoxResponse(response.getResult(), response.getException(), follower.mRequest));
+                    }
                 }
-                getApiExecutor().execute(cacheTask);
-            } catch (BoxException e){
-                BoxLogUtils.e("cache task error ", e);
             }
+        };
+    }
+
+    private static void execute(ThreadPoolExecutor executor, Runnable task, Priority priority) {
+        if (executor instanceof BoxPriorityExecutor) {
+            ((BoxPriorityExecutor) executor).execute(task, priority);
+        } else {
+            executor.execute(task);
+        }
+    }
+
+    /**
+     * Gets the priority a request is executed with when none is given.
+     *
+     * @param request the request
+     * @return the priority
+     */
+    protected Priority getDefaultPriority(BoxRequest request) {
+        return getPool(request) == BoxBrowseExecutorConfig.Pool.THUMBNAIL ?
+                Priority.VISIBLE :
+                Priority.USER_INITIATED;
+    }
 
+    /**
+     * Gets the pool a request is executed in.
+     *
+     * @param request the request
+     * @return the pool
+     */
+    protected BoxBrowseExecutorConfig.Pool getPool(BoxRequest request) {
+        if (request instanceof BoxRequestsFile.DownloadThumbnail || request instanceof BoxRequestsFile.DownloadRepresentation) {
+            return BoxBrowseExecutorConfig.Pool.THUMBNAIL;
         }
-        BoxFutureTask task = request.toTask();
-        if (mListener != null) {
-            task.addOnCompletedListener(mListener);
+        if (request instanceof BoxRequestsFolder.GetFolderWithAllItems
+                || request instanceof BoxRequestsFolder.GetFolderInfo
+                || request instanceof BoxRequestsFolder.GetFolderItems) {
+            return BoxBrowseExecutorConfig.Pool.FOLDER_LISTING;
         }
+        if (request instanceof BoxRequestsSearch.Search) {
+            return BoxBrowseExecutorConfig.Pool.SEARCH;
+        }
+        return BoxBrowseExecutorConfig.Pool.MUTATION;
+    }
 
-        // Thumbnail request should be executed in their own executor pool
-        ThreadPoolExecutor executor = request instanceof BoxRequestsFile.DownloadThumbnail ?
-                getThumbnailExecutor() :
-                getApiExecutor();
-        executor.submit(task);
+    /**
+     * Sets the configuration of the executors requests are executed on. Executors created with the previous
+     * configuration finish their queued work and are then shut down. Executors supplied through
+     * {@link BoxBrowseExecutorConfig.Builder#setExecutor(BoxBrowseExecutorConfig.Pool, ThreadPoolExecutor)} are left
+     * running.
+     *
+     * @param config the executor config
+     */
+    public static void setExecutorConfig(BoxBrowseExecutorConfig config) {
+        synchronized (mExecutors) {
+            for (ThreadPoolExecutor executor : mExecutors.values()) {
+                if (!mExecutorConfig.isSupplied(executor)) {
+                    executor.shutdown();
+                }
+            }
+            mExecutors.clear();
+            mExecutorConfig = config;
+        }
+    }
+
+    /**
+     * Gets the executor of a pool, creating it if needed.
+     *
+     * @param pool the pool
+     * @return the executor
+     */
+    protected ThreadPoolExecutor getExecutor(BoxBrowseExecutorConfig.Pool pool) {
+        synchronized (mExecutors) {
+            ThreadPoolExecutor executor = mExecutors.get(pool);
+            if (executor == null || executor.isShutdown()) {
+                executor = mExecutorConfig.createExecutor(pool);
+                mExecutors.put(pool, executor);
+            }
+            return executor;
+        }
+    }
+
+    /**
+     * Creates a task that only downloads the folder again if it changed since the cached listing, see
+     * {@link #isUnchanged(BoxFolder)}. An unchanged folder completes with a {@link BoxNotModifiedResponse} of the
+     * cached listing, so receivers can tell that their items are up to date.
+     *
+     * @param request the request for the folder
+     * @return the revalidation task
+     */
+    protected BoxFutureTask<BoxFolder> createRevalidationTask(final BoxRequestsFolder.GetFolderWithAllItems request) {
+        Callable<BoxResponse<BoxFolder>> callable = new Callable<BoxResponse<BoxFolder>>() {
+            @Override
+            public BoxResponse<BoxFolder> call() throws Exception {
+                BoxFolder cachedFolder = getCachedFolder(request);
+                if (cachedFolder != null && isUnchanged(cachedFolder)) {
+                    return new BoxNotModifiedResponse<BoxFolder>(cachedFolder, request);
+                }
+                try {
+                    return new BoxResponse<BoxFolder>(request.send(), null, request);
+                } catch (Exception e) {
+                    return new BoxResponse<BoxFolder>(null, e, request);
+                }
+            }
+        };
+        return new RevalidationTask(callable, request);
+    }
+
+    private BoxFolder getCachedFolder(BoxRequestsFolder.GetFolderWithAllItems request) {
+        try {
+            return BoxConfig.getCache().get(request);
+        } catch (BoxException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Checks whether a cached folder listing is still current with two small requests rather than the listing
+     * itself. The folder info is requested with the cached etag as If-None-Match, which the server answers with
+     * 304 Not Modified while the folder itself is unchanged. The etag of a folder does not change when items are
+     * added to or removed from it though, so a single page of at most {@link #REVALIDATION_PROBE_LIMIT} items is
+     * requested with only their etags, and its total count and items are compared with the cached listing.
+     * Changes to items past that page that neither add nor remove items go unnoticed until the next full fetch.
+     *
+     * @param cachedFolder the cached folder with its items
+     * @return true if neither the folder nor its items changed
+     */
+    protected boolean isUnchanged(BoxFolder cachedFolder) {
+        if (SdkUtils.isBlank(cachedFolder.getEtag()) || cachedFolder.getItemCollection() == null) {
+            return false;
+        }
+        try {
+            if (!isFolderUnchanged(cachedFolder)) {
+                return false;
+            }
+            BoxIteratorItems items = mFolderApi.getItemsRequest(cachedFolder.getId())
+                    .setLimit(REVALIDATION_PROBE_LIMIT)
+                    .setFields(BoxItem.FIELD_TYPE, BoxItem.FIELD_ID, BoxItem.FIELD_ETAG)
+                    .send();
+            return hasSameItems(cachedFolder.getItemCollection(), items);
+        } catch (BoxException e) {
+            return false;
+        }
+    }
+
+    private boolean isFolderUnchanged(BoxFolder cachedFolder) throws BoxException {
+        try {
+            BoxFolder folder = mFolderApi.getInfoRequest(cachedFolder.getId())
+                    .setIfNoneMatchEtag(cachedFolder.getEtag())
+                    .setFields(BoxItem.FIELD_ETAG)
+                    .send();
+            // Servers that ignore the header send the folder, whose etag tells the same.
+            return cachedFolder.getEtag().equals(folder.getEtag());
+        } catch (BoxException e) {
+            if (e.getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                return true;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Compares the first page of the items of a folder with the cached items.
+     */
+    private static boolean hasSameItems(BoxIteratorItems cachedItems, BoxIteratorItems items) {
+        ArrayList<BoxItem> cachedEntries = cachedItems.getEntries();
+        ArrayList<BoxItem> entries = items != null ? items.getEntries() : null;
+        if (cachedEntries == null || entries == null || items.fullSize() == null
+                || items.fullSize() != cachedEntries.size() || entries.size() > cachedEntries.size()) {
+            return false;
+        }
+        for (int i = 0; i < entries.size(); i++) {
+            BoxItem cachedItem = cachedEntries.get(i);
+            BoxItem item = entries.get(i);
+            if (!TextUtils.equals(cachedItem.getType(), item.getType())
+                    || !TextUtils.equals(cachedItem.getId(), item.getId())
+                    || SdkUtils.isBlank(item.getEtag())
+                    || !TextUtils.equals(cachedItem.getEtag(), item.getEtag())) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
@@ -220,27 +645,55 @@ public class BoxBrowseController implements BrowseController {
     }
 
     /**
-     * Gets api executor.
+     * Gets api executor, used for requests that do not belong to a more specific pool.
      *
      * @return the api executor
      */
     protected ThreadPoolExecutor getApiExecutor() {
-        if (mApiExecutor == null || mApiExecutor.isShutdown()) {
-            mApiExecutor = new ThreadPoolExecutor(1, 1, 3600, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
-        }
-        return mApiExecutor;
+        return getExecutor(BoxBrowseExecutorConfig.Pool.MUTATION);
     }
 
+    /**
+     * @deprecated this cache is inert: the thumbnail manager neither reads nor fills it, so bitmaps put into it are
+     * never shown and thumbnails are never found in it. Thumbnails are cached by file id, sha1 and size class, use
+     * {@link #getThumbnailMemoryCache()} instead.
+     */
+    @Deprecated
     @Override
     public LruCache<File, Bitmap> getThumbnailCache() {
         return mThumbnailCache;
     }
 
+    @Override
+    public LruCache<ThumbnailCacheKey, Bitmap> getThumbnailMemoryCache() {
+        return mThumbnailMemoryCache;
+    }
+
     @Override
     public LruCache<Integer, Bitmap> getIconResourceCache() {
         return mIconResCache;
     }
 
+    @Override
+    public BoxThumbnailDiskCache getThumbnailDiskCache() {
+        if (mThumbnailDiskCache == null) {
+            File directory = getThumbnailCacheDir();
+            synchronized (mThumbnailDiskCaches) {
+                mThumbnailDiskCache = mThumbnailDiskCaches.get(directory);
+                if (mThumbnailDiskCache == null) {
+                    mThumbnailDiskCache = new BoxThumbnailDiskCache(directory, BoxThumbnailDiskCache.DEFAULT_MAX_SIZE);
+                    mThumbnailDiskCaches.put(directory, mThumbnailDiskCache);
+                }
+            }
+        }
+        return mThumbnailDiskCache;
+    }
+
+    @Override
+    public BitmapPool getBitmapPool() {
+        return mBitmapPool;
+    }
+
     @Override
     public ArrayList<String> getRecentSearches(Context context, BoxUser user) {
         String recentSearchesString = context.getSharedPreferences(RECENT_SEARCHES_KEY + user.getId(), Context.MODE_PRIVATE).getString(RECENT_SEARCHES_KEY, null);
@@ -299,10 +752,14 @@ public class BoxBrowseController implements BrowseController {
      */
     @Override
     public ThreadPoolExecutor getThumbnailExecutor() {
-        if (mThumbnailExecutor == null || mThumbnailExecutor.isShutdown()) {
-            mThumbnailExecutor = new ThreadPoolExecutor(5, 10, 3600, TimeUnit.SECONDS, new LinkedBlockingDeque<Runnable>());
-        }
-        return mThumbnailExecutor;
+        return getExecutor(BoxBrowseExecutorConfig.Pool.THUMBNAIL);
+    }
+
+    private static String[] appendFields(String[] fields, String... fieldsToAppend) {
+        String[] result = new String[fields.length + fieldsToAppend.length];
+        System.arraycopy(fields, 0, result, 0, fields.length);
+        System.arraycopy(fieldsToAppend, 0, result, fields.length, fieldsToAppend.length);
+        return result;
     }
 
     @Override
@@ -310,9 +767,42 @@ public class BoxBrowseController implements BrowseController {
         BoxLogUtils.e(tag, msg, t);
     }
 
+    /**
+     * A request that joined an identical request in flight, along with the listener of the controller that executed it.
+     */
+    private static class InFlightFollower {
+
+        private final BoxRequest mRequest;
+        private final BoxFutureTask.OnCompletedListener mListener;
+
+        InFlightFollower(BoxRequest request, BoxFutureTask.OnCompletedListener listener) {
+            mRequest = request;
+            mListener = listener;
+        }
+    }
+
+    /**
+     * Task revalidating a cached folder listing before downloading it again.
+     */
+    protected static class RevalidationTask extends BoxFutureTask<BoxFolder> {
+
+        /**
+         * Instantiates a new Revalidation task.
+         *
+         * @param callable the callable
+         * @param request  the request
+         */
+        protected RevalidationTask(Callable<BoxResponse<BoxFolder>> callable, BoxRequest request) {
+            super(callable, request);
+        }
+    }
+
     /**
      * The type Bitmap lru cache.
+     *
+     * @deprecated inert, see {@link #getThumbnailCache()}.
      */
+    @Deprecated
     protected class BitmapLruCache extends LruCache<File, Bitmap> {
         /**
          * Instantiates a new Bitmap lru cache.
@@ -328,4 +818,34 @@ public class BoxBrowseController implements BrowseController {
             return value.getByteCount() / 1024;
         }
     }
+
+    /**
+     * Memory cache of decoded thumbnails and representations. Evicted bitmaps are handed to the bitmap pool.
+     */
+    protected class ThumbnailLruCache extends LruCache<ThumbnailCacheKey, Bitmap> {
+        /**
+         * Instantiates a new Thumbnail lru cache.
+         *
+         * @param sizeInKb the size in kb
+         */
+        public ThumbnailLruCache(int sizeInKb){
+            super(sizeInKb);
+        }
+
+        @Override
+        protected int sizeOf(ThumbnailCacheKey key, Bitmap value) {
+            return value.getByteCount() / 1024;
+        }
+
+        @Override
+        protected void entryRemoved(boolean evicted, ThumbnailCacheKey key, Bitmap oldValue, Bitmap newValue) {
+            if (oldValue != newValue && mBitmapPool != null) {
+                mBitmapPool.put(oldValue);
+            }
+            if (evicted && key.getFileName() != null && getThumbnailDiskCache() != null) {
+                // Memory hits do not reach the disk cache, so thumbnails that stayed in memory are touched on the way out.
+                getThumbnailDiskCache().recordAccess(key.getFileName());
+            }
+        }
+    }
 }
@@ -0,0 +1,245 @@
+package com.box.androidsdk.browse.service;
+
+import java.util.EnumMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/***
+ * Describes the executors {@link BoxBrowseController} runs requests on. Each {@link Pool} gets its own executor so
+ * that a slow request of one kind, e.g. a search, does not hold up requests of another kind queued behind it.
+ *
+ * Use {@link Builder} to change the parallelism or queue capacity of a pool, or to supply an executor of your own.
+ */
+public class BoxBrowseExecutorConfig {
+
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    /**
+     * The kinds of work that are executed on separate executors.
+     */
+    public enum Pool {
+        /**
+         * Folder listings and folder info requests.
+         */
+        FOLDER_LISTING(2, 32, false),
+        /**
+         * Search requests.
+         */
+        SEARCH(1, 8, false),
+        /**
+         * Reads of cached responses.
+         */
+        CACHE_READ(1, 32, false),
+        /**
+         * Requests changing content, such as creating shared links, and any other request.
+         */
+        MUTATION(1, 64, false),
+        /**
+         * Thumbnail and representation downloads. Dispatched newest first by default, so after a fling the rows
+         * the user stopped at load before the ones that scrolled past.
+         */
+        THUMBNAIL(5, Integer.MAX_VALUE, true);
+
+        private final int mDefaultParallelism;
+        private final int mDefaultQueueCapacity;
+        private final boolean mDefaultLifo;
+
+        Pool(int defaultParallelism, int defaultQueueCapacity, boolean defaultLifo) {
+            mDefaultParallelism = defaultParallelism;
+            mDefaultQueueCapacity = defaultQueueCapacity;
+            mDefaultLifo = defaultLifo;
+        }
+
+        /**
+         * Gets the name the threads of this pool are prefixed with.
+         *
+         * @return the thread name prefix
+         */
+        public String getThreadNamePrefix() {
+            return "BoxBrowse-" + name().toLowerCase() + "-";
+        }
+    }
+
+    private final EnumMap<Pool, Integer> mParallelism;
+    private final EnumMap<Pool, Integer> mQueueCapacity;
+    private final EnumMap<Pool, Boolean> mLifo;
+    private final EnumMap<Pool, ThreadPoolExecutor> mExecutors;
+
+    private BoxBrowseExecutorConfig(Builder builder) {
+        mParallelism = new EnumMap<Pool, Integer>(builder.mParallelism);
+        mQueueCapacity = new EnumMap<Pool, Integer>(builder.mQueueCapacity);
+        mLifo = new EnumMap<Pool, Boolean>(builder.mLifo);
+        mExecutors = new EnumMap<Pool, ThreadPoolExecutor>(builder.mExecutors);
+    }
+
+    /**
+     * Creates the default configuration.
+     *
+     * @return the default configuration
+     */
+    public static BoxBrowseExecutorConfig createDefault() {
+        return new Builder().build();
+    }
+
+    /**
+     * Gets the number of threads of a pool.
+     *
+     * @param pool the pool
+     * @return the parallelism
+     */
+    public int getParallelism(Pool pool) {
+        Integer parallelism = mParallelism.get(pool);
+        return parallelism != null ? parallelism : pool.mDefaultParallelism;
+    }
+
+    /**
+     * Gets the number of tasks that may wait in the queue of a pool.
+     *
+     * @param pool the pool
+     * @return the queue capacity
+     */
+    public int getQueueCapacity(Pool pool) {
+        Integer capacity = mQueueCapacity.get(pool);
+        return capacity != null ? capacity : pool.mDefaultQueueCapacity;
+    }
+
+    /**
+     * Whether the newest of the queued tasks of a pool run first.
+     *
+     * @param pool the pool
+     * @return true if the pool dispatches in LIFO order
+     */
+    public boolean isLifo(Pool pool) {
+        Boolean lifo = mLifo.get(pool);
+        return lifo != null ? lifo : pool.mDefaultLifo;
+    }
+
+    /**
+     * Returns true if an executor was supplied through {@link Builder#setExecutor(Pool, ThreadPoolExecutor)}, in which
+     * case its lifecycle is managed by whoever supplied it.
+     *
+     * @param executor the executor
+     * @return true if the executor was supplied rather than created by this config
+     */
+    public boolean isSupplied(ThreadPoolExecutor executor) {
+        return mExecutors.containsValue(executor);
+    }
+
+    /**
+     * Creates the executor of a pool, or returns the one supplied through {@link Builder#setExecutor(Pool, ThreadPoolExecutor)}.
+     * Only instances of {@link BoxPriorityExecutor} order their tasks by priority.
+     *
+     * @param pool the pool
+     * @return the executor
+     */
+    protected ThreadPoolExecutor createExecutor(Pool pool) {
+        ThreadPoolExecutor executor = mExecutors.get(pool);
+        if (executor != null) {
+            return executor;
+        }
+        executor = new BoxPriorityExecutor(getParallelism(pool), getQueueCapacity(pool), isLifo(pool), KEEP_ALIVE_SECONDS,
+                TimeUnit.SECONDS, new NamedThreadFactory(pool.getThreadNamePrefix()));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Names the threads of a pool so they can be told apart in traces.
+     */
+    protected static class NamedThreadFactory implements ThreadFactory {
+
+        private final String mPrefix;
+        private final AtomicInteger mCount = new AtomicInteger();
+
+        /**
+         * Instantiates a new Named thread factory.
+         *
+         * @param prefix the prefix of the thread names
+         */
+        public NamedThreadFactory(String prefix) {
+            mPrefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            return new Thread(r, mPrefix + mCount.incrementAndGet());
+        }
+    }
+
+    /**
+     * Builder for creating a BoxBrowseExecutorConfig.
+     */
+    public static class Builder {
+
+        private final EnumMap<Pool, Integer> mParallelism = new EnumMap<Pool, Integer>(Pool.class);
+        private final EnumMap<Pool, Integer> mQueueCapacity = new EnumMap<Pool, Integer>(Pool.class);
+        private final EnumMap<Pool, Boolean> mLifo = new EnumMap<Pool, Boolean>(Pool.class);
+        private final EnumMap<Pool, ThreadPoolExecutor> mExecutors = new EnumMap<Pool, ThreadPoolExecutor>(Pool.class);
+
+        /**
+         * Sets the number of threads of a pool.
+         *
+         * @param pool        the pool
+         * @param parallelism the number of threads, at least 1
+         * @return the builder
+         */
+        public Builder setParallelism(Pool pool, int parallelism) {
+            if (parallelism < 1) {
+                throw new IllegalArgumentException("Parallelism must be at least 1");
+            }
+            mParallelism.put(pool, parallelism);
+            return this;
+        }
+
+        /**
+         * Sets the number of tasks that may wait in the queue of a pool. Once the queue is full the waiting task
+         * that would run last is cancelled.
+         *
+         * @param pool     the pool
+         * @param capacity the queue capacity, at least 1
+         * @return the builder
+         */
+        public Builder setQueueCapacity(Pool pool, int capacity) {
+            if (capacity < 1) {
+                throw new IllegalArgumentException("Queue capacity must be at least 1");
+            }
+            mQueueCapacity.put(pool, capacity);
+            return this;
+        }
+
+        /**
+         * Sets whether the newest of the queued tasks of the same priority run first.
+         *
+         * @param pool the pool
+         * @param lifo true for LIFO dispatch, false for FIFO
+         * @return the builder
+         */
+        public Builder setLifo(Pool pool, boolean lifo) {
+            mLifo.put(pool, lifo);
+            return this;
+        }
+
+        /**
+         * Supplies the executor to use for a pool instead of creating one.
+         *
+         * @param pool     the pool
+         * @param executor the executor
+         * @return the builder
+         */
+        public Builder setExecutor(Pool pool, ThreadPoolExecutor executor) {
+            mExecutors.put(pool, executor);
+            return this;
+        }
+
+        /**
+         * Build the executor config.
+         *
+         * @return the executor config
+         */
+        public BoxBrowseExecutorConfig build() {
+            return new BoxBrowseExecutorConfig(this);
+        }
+    }
+}
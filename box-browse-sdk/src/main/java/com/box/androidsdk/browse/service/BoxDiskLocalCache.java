@@ -0,0 +1,287 @@
+package com.box.androidsdk.browse.service;
+
+import android.content.Context;
+
+import com.box.androidsdk.content.BoxException;
+import com.box.androidsdk.content.models.BoxFolder;
+import com.box.androidsdk.content.models.BoxIteratorItems;
+import com.box.androidsdk.content.models.BoxJsonObject;
+import com.box.androidsdk.content.models.BoxObject;
+import com.box.androidsdk.content.requests.BoxCacheableRequest;
+import com.box.androidsdk.content.requests.BoxRequest;
+import com.box.androidsdk.content.requests.BoxRequestsFolder;
+import com.box.androidsdk.content.requests.BoxResponse;
+import com.box.androidsdk.content.utils.BoxLogUtils;
+import com.eclipsesource.json.JsonObject;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/***
+ * A BoxCache that keeps folder responses in memory like {@link BoxSimpleLocalCache} and also persists them on disk
+ * so that cached listings survive process death. Listings, and first pages of folders listed page by page, are stored
+ * per user and folder as gzipped json and
+ * evicted in least recently used order once the size budget is exceeded.
+ *
+ * The user a request is made for is not part of the request, so requests must be bound to a user with
+ * {@link #bindUser(BoxRequest, String)} before being executed. {@link BoxBrowseController} does this for all
+ * cacheable requests it executes, and binds the folder requests it creates to their fields.
+ */
+public class BoxDiskLocalCache extends BoxSimpleLocalCache {
+
+    private static final String TAG = BoxDiskLocalCache.class.getName();
+
+    private static final String CACHE_DIRECTORY = "BoxFolderListings";
+    private static final String FILE_EXTENSION = ".json.gz";
+    private static final String FIRST_PAGE_SUFFIX = "_page";
+    private static final String TEMP_FILE_EXTENSION = ".tmp";
+    // Age after which a temp file is considered left over from an interrupted write rather than being written
+    private static final long STALE_TEMP_FILE_AGE_MILLIS = 10 * 60 * 1000;
+
+    /**
+     * Default size budget of the disk cache in bytes.
+     */
+    public static final long DEFAULT_MAX_SIZE = 10 * 1024 * 1024;
+
+    private final File mDirectory;
+    private final long mMaxSize;
+    private final WeakHashMap<BoxRequest, String> mRequestToUserId = new WeakHashMap<BoxRequest, String>();
+
+    // File name to size in bytes, in least recently used order. Loaded lazily off the ui thread.
+    private LinkedHashMap<String, Long> mEntries;
+    private long mSize;
+
+    /**
+     * Instantiates a new Box disk local cache with the default size budget.
+     *
+     * @param context the context
+     */
+    public BoxDiskLocalCache(Context context) {
+        this(context, DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Instantiates a new Box disk local cache.
+     *
+     * @param context the context
+     * @param maxSize the maximum number of bytes the cached listings may use on disk
+     */
+    public BoxDiskLocalCache(Context context, long maxSize) {
+        mDirectory = new File(context.getCacheDir(), CACHE_DIRECTORY);
+        mMaxSize = maxSize;
+    }
+
+    /**
+     * Associates a request with the user it is made for. Responses of requests that are not bound to a user
+     * are only cached in memory.
+     *
+     * @param request the request
+     * @param userId  the id of the user
+     */
+    public void bindUser(BoxRequest request, String userId) {
+        synchronized (mRequestToUserId) {
+            mRequestToUserId.put(request, userId);
+        }
+    }
+
+    @Override
+    public <T extends BoxObject> void put(BoxResponse<T> response) throws BoxException {
+        super.put(response);
+        if (response.isSuccess()) {
+            File file = getFile(response.getRequest());
+            if (file != null) {
+                try {
+                    write(file, (BoxJsonObject) response.getResult());
+                } catch (IOException e) {
+                    BoxLogUtils.e(TAG, e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public <T extends BoxObject, R extends BoxRequest & BoxCacheableRequest> T get(R request) throws BoxException {
+        T result = super.get(request);
+        if (result != null) {
+            return result;
+        }
+        File file = getFile(request);
+        if (file == null) {
+            return null;
+        }
+        try {
+            JsonObject json = read(file);
+            if (json == null) {
+                return null;
+            }
+            if (request instanceof BoxRequestsFolder.GetFolderItems) {
+                BoxIteratorItems items = new BoxIteratorItems(json);
+                mFirstPageCache.put(getKey((BoxRequestsFolder.GetFolderItems) request), items);
+                return (T) items;
+            }
+            BoxFolder folder = new BoxFolder(json);
+            mFullFolderCache.put(getKey((BoxRequestsFolder.GetFolderWithAllItems) request), folder);
+            return (T) folder;
+        } catch (Exception e) {
+            // A corrupt entry should not prevent the listing from being fetched from the network.
+            BoxLogUtils.e(TAG, e);
+            remove(file);
+            return null;
+        }
+    }
+
+    /**
+     * Deletes all listings stored on disk and in memory.
+     */
+    public synchronized void clear() {
+        mFullFolderCache.evictAll();
+        mFirstPageCache.evictAll();
+        File[] files = mDirectory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        mEntries = new LinkedHashMap<String, Long>(16, 0.75f, true);
+        mSize = 0;
+    }
+
+    /**
+     * Gets the file the response of a request is stored in.
+     *
+     * @return the file, or null if the response of the request is not persisted
+     */
+    private File getFile(BoxRequest request) {
+        String userId;
+        synchronized (mRequestToUserId) {
+            userId = mRequestToUserId.get(request);
+        }
+        if (userId == null) {
+            return null;
+        }
+        String name;
+        if (request instanceof BoxRequestsFolder.GetFolderWithAllItems) {
+            name = userId + "_" + ((BoxRequestsFolder.GetFolderWithAllItems) request).getId();
+        } else if (request instanceof BoxRequestsFolder.GetFolderItems
+                && getKey((BoxRequestsFolder.GetFolderItems) request) != null) {
+            name = userId + "_" + ((BoxRequestsFolder.GetFolderItems) request).getId() + FIRST_PAGE_SUFFIX;
+        } else {
+            return null;
+        }
+        String fields = getFields(request);
+        if (fields != null) {
+            // Listings of other fields are stored apart, the field list itself is too long for a file name.
+            name += "_" + Integer.toHexString(fields.hashCode());
+        }
+        return new File(mDirectory, name + FILE_EXTENSION);
+    }
+
+    private JsonObject read(File file) throws IOException {
+        synchronized (this) {
+            ensureEntriesLoaded();
+            if (mEntries.get(file.getName()) == null) {
+                return null;
+            }
+            // Persist the access so that the least recently used order survives restarts.
+            file.setLastModified(System.currentTimeMillis());
+        }
+        Reader reader = new InputStreamReader(new GZIPInputStream(new BufferedInputStream(new FileInputStream(file))), "UTF-8");
+        try {
+            return JsonObject.readFrom(reader);
+        } finally {
+            reader.close();
+        }
+    }
+
+    private void write(File file, BoxJsonObject object) throws IOException {
+        if (!mDirectory.exists()) {
+            mDirectory.mkdirs();
+        }
+        File tempFile = new File(mDirectory, file.getName() + Thread.currentThread().getId() + TEMP_FILE_EXTENSION);
+        Writer writer = new OutputStreamWriter(new GZIPOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile))), "UTF-8");
+        try {
+            writer.write(object.toJson());
+        } finally {
+            writer.close();
+        }
+        synchronized (this) {
+            ensureEntriesLoaded();
+            if (!tempFile.renameTo(file)) {
+                tempFile.delete();
+                throw new IOException("Unable to store folder listing " + file.getName());
+            }
+            Long previousSize = mEntries.put(file.getName(), file.length());
+            if (previousSize != null) {
+                mSize -= previousSize;
+            }
+            mSize += file.length();
+            trimToSize();
+        }
+    }
+
+    private synchronized void remove(File file) {
+        ensureEntriesLoaded();
+        Long size = mEntries.remove(file.getName());
+        if (size != null) {
+            mSize -= size;
+        }
+        file.delete();
+    }
+
+    private void trimToSize() {
+        Iterator<Map.Entry<String, Long>> iterator = mEntries.entrySet().iterator();
+        while (mSize > mMaxSize && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            new File(mDirectory, eldest.getKey()).delete();
+            mSize -= eldest.getValue();
+            iterator.remove();
+        }
+    }
+
+    private void ensureEntriesLoaded() {
+        if (mEntries != null) {
+            return;
+        }
+        mEntries = new LinkedHashMap<String, Long>(16, 0.75f, true);
+        mSize = 0;
+        File[] files = mDirectory.listFiles();
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File lhs, File rhs) {
+                return Long.compare(lhs.lastModified(), rhs.lastModified());
+            }
+        });
+        long staleTempFileTime = System.currentTimeMillis() - STALE_TEMP_FILE_AGE_MILLIS;
+        for (File file : files) {
+            if (!file.getName().endsWith(FILE_EXTENSION)) {
+                // Leftover from an interrupted write. Recent ones may still be written by another thread, which
+                // does not hold the lock until it renames them.
+                if (file.lastModified() < staleTempFileTime) {
+                    file.delete();
+                }
+                continue;
+            }
+            mEntries.put(file.getName(), file.length());
+            mSize += file.length();
+        }
+    }
+}
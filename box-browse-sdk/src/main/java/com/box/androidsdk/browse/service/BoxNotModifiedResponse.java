@@ -0,0 +1,26 @@
+package com.box.androidsdk.browse.service;
+
+import com.box.androidsdk.content.models.BoxObject;
+import com.box.androidsdk.content.requests.BoxRequest;
+import com.box.androidsdk.content.requests.BoxResponse;
+
+/**
+ * Response to a request whose cached result was revalidated as still current, see
+ * {@link BoxBrowseController#createRevalidationTask(com.box.androidsdk.content.requests.BoxRequestsFolder.GetFolderWithAllItems)}.
+ * The result is the cached one, receivers that already show it have nothing to update, which
+ * {@link BoxResponseIntent#isNotModified()} tells them.
+ *
+ * @param <E> the type of the result
+ */
+public class BoxNotModifiedResponse<E extends BoxObject> extends BoxResponse<E> {
+
+    /**
+     * Instantiates a new Box not modified response.
+     *
+     * @param cachedResult the cached result that is still current
+     * @param request      the request
+     */
+    public BoxNotModifiedResponse(E cachedResult, BoxRequest request) {
+        super(cachedResult, null, request);
+    }
+}
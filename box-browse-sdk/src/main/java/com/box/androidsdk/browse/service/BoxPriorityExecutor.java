@@ -0,0 +1,206 @@
+package com.box.androidsdk.browse.service;
+
+import com.box.androidsdk.content.utils.BoxLogUtils;
+
+import java.util.Iterator;
+import java.util.concurrent.Future;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/***
+ * A ThreadPoolExecutor that runs queued tasks by {@link BrowseController.Priority}, so that work the user is looking at
+ * overtakes prefetch and background work. Tasks of the same priority run in the order they were executed, or newest
+ * first in LIFO mode, which suits work that goes stale quickly such as thumbnails of rows scrolled past.
+ *
+ * The queue is bounded: once it holds the maximum number of tasks, the task that would run last is cancelled to make
+ * room.
+ */
+public class BoxPriorityExecutor extends ThreadPoolExecutor {
+
+    private static final String TAG = BoxPriorityExecutor.class.getName();
+
+    private final int mQueueCapacity;
+    private final boolean mLifo;
+    private final AtomicLong mSequence = new AtomicLong();
+
+    /**
+     * Instantiates a new Box priority executor.
+     *
+     * @param parallelism   the number of threads
+     * @param queueCapacity the maximum number of queued tasks
+     * @param keepAliveTime the time idle threads are kept alive
+     * @param unit          the unit of the keep alive time
+     * @param threadFactory the thread factory
+     */
+    public BoxPriorityExecutor(int parallelism, int queueCapacity, long keepAliveTime, TimeUnit unit, ThreadFactory threadFactory) {
+        this(parallelism, queueCapacity, false, keepAliveTime, unit, threadFactory);
+    }
+
+    /**
+     * Instantiates a new Box priority executor.
+     *
+     * @param parallelism   the number of threads
+     * @param queueCapacity the maximum number of queued tasks
+     * @param lifo          true to run the newest of the queued tasks of the same priority first
+     * @param keepAliveTime the time idle threads are kept alive
+     * @param unit          the unit of the keep alive time
+     * @param threadFactory the thread factory
+     */
+    public BoxPriorityExecutor(int parallelism, int queueCapacity, boolean lifo, long keepAliveTime, TimeUnit unit, ThreadFactory threadFactory) {
+        super(parallelism, parallelism, keepAliveTime, unit, new PriorityBlockingQueue<Runnable>(), threadFactory);
+        mQueueCapacity = queueCapacity;
+        mLifo = lifo;
+    }
+
+    /**
+     * Whether the newest of the queued tasks of the same priority run first.
+     *
+     * @return true in LIFO mode
+     */
+    public boolean isLifo() {
+        return mLifo;
+    }
+
+    /**
+     * Executes the task with {@link BrowseController.Priority#VISIBLE} priority.
+     *
+     * @param command the task
+     */
+    @Override
+    public void execute(Runnable command) {
+        execute(command, BrowseController.Priority.VISIBLE);
+    }
+
+    /**
+     * Executes the task ahead of queued tasks of a lower priority.
+     *
+     * @param command  the task
+     * @param priority the priority
+     */
+    public void execute(Runnable command, BrowseController.Priority priority) {
+        PrioritizedTask task = new PrioritizedTask(command, priority, nextSequence());
+        synchronized (this) {
+            if (getQueue().size() >= mQueueCapacity && !evictFor(task)) {
+                task.cancel();
+                return;
+            }
+        }
+        super.execute(task);
+    }
+
+    /**
+     * Changes the priority of a queued task, e.g. when a prefetched row becomes visible. The task is ordered as if it
+     * was executed now with the new priority. Tasks that already started are not affected.
+     *
+     * @param command  the task given to {@link #execute(Runnable, BrowseController.Priority)}
+     * @param priority the new priority
+     * @return true if the task was still queued
+     */
+    public boolean setPriority(Runnable command, BrowseController.Priority priority) {
+        synchronized (this) {
+            for (Runnable queued : getQueue()) {
+                PrioritizedTask task = (PrioritizedTask) queued;
+                if (task.mCommand == command) {
+                    if (task.mPriority == priority || !getQueue().remove(task)) {
+                        return task.mPriority == priority;
+                    }
+                    getQueue().offer(new PrioritizedTask(command, priority, nextSequence()));
+                    // The task went straight into the queue rather than through execute(), so make sure a worker
+                    // exists to take it, e.g. after idle core threads timed out.
+                    prestartCoreThread();
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes a task given to {@link #execute(Runnable, BrowseController.Priority)} from the queue, e.g. once the view
+     * it was loading into has been rebound. The removed task is cancelled, so that its completion listeners still
+     * receive a (failed) response.
+     *
+     * @param task the task
+     * @return true if the task was removed
+     */
+    @Override
+    public boolean remove(Runnable task) {
+        for (Runnable queued : getQueue()) {
+            if (queued == task || ((PrioritizedTask) queued).mCommand == task) {
+                if (!super.remove(queued)) {
+                    return false;
+                }
+                ((PrioritizedTask) queued).cancel();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long nextSequence() {
+        // Negating the sequence reverses the order of tasks of the same priority.
+        return mLifo ? -mSequence.incrementAndGet() : mSequence.incrementAndGet();
+    }
+
+    /**
+     * Removes the queued task that should make room for the given one.
+     *
+     * @param incoming the task about to be queued
+     * @return false if the incoming task would run after all queued ones
+     */
+    private boolean evictFor(PrioritizedTask incoming) {
+        PrioritizedTask victim = null;
+        Iterator<Runnable> iterator = getQueue().iterator();
+        while (iterator.hasNext()) {
+            PrioritizedTask task = (PrioritizedTask) iterator.next();
+            if (victim == null || task.compareTo(victim) > 0) {
+                victim = task;
+            }
+        }
+        if (victim == null || incoming.compareTo(victim) > 0 || !getQueue().remove(victim)) {
+            return false;
+        }
+        BoxLogUtils.e(TAG, "Queue is full, cancelling " + victim.mCommand);
+        victim.cancel();
+        return true;
+    }
+
+    /**
+     * Wraps an executed task with the information it is ordered by.
+     */
+    protected static class PrioritizedTask implements Runnable, Comparable<PrioritizedTask> {
+
+        private final Runnable mCommand;
+        private final BrowseController.Priority mPriority;
+        private final long mSequence;
+
+        PrioritizedTask(Runnable command, BrowseController.Priority priority, long sequence) {
+            mCommand = command;
+            mPriority = priority;
+            mSequence = sequence;
+        }
+
+        @Override
+        public void run() {
+            mCommand.run();
+        }
+
+        /**
+         * Cancels the wrapped task so that its completion listeners still receive a (failed) response.
+         */
+        void cancel() {
+            if (mCommand instanceof Future) {
+                ((Future) mCommand).cancel(false);
+            }
+        }
+
+        @Override
+        public int compareTo(PrioritizedTask another) {
+            int result = mPriority.compareTo(another.mPriority);
+            return result != 0 ? result : Long.compare(mSequence, another.mSequence);
+        }
+    }
+}
@@ -38,6 +38,14 @@ public class BoxResponseIntent<E extends BoxObject> extends Intent {
         return mFromCache;
     }
 
+    /**
+     * Return true if the response is a cached result revalidated as still current, see
+     * {@link BoxNotModifiedResponse}. Receivers that already show the cached result have nothing to update.
+     */
+    public boolean isNotModified() {
+        return mResponse instanceof BoxNotModifiedResponse;
+    }
+
     /**
      * Is success boolean. returns true if the request was successful
      *
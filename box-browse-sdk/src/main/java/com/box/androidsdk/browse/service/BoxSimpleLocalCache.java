@@ -3,16 +3,23 @@ package com.box.androidsdk.browse.service;
 import com.box.androidsdk.content.BoxCache;
 import com.box.androidsdk.content.BoxException;
 import com.box.androidsdk.content.models.BoxFolder;
+import com.box.androidsdk.content.models.BoxIteratorItems;
 import com.box.androidsdk.content.models.BoxObject;
 import com.box.androidsdk.content.requests.BoxCacheableRequest;
 import com.box.androidsdk.content.requests.BoxRequest;
 import com.box.androidsdk.content.requests.BoxRequestsFolder;
 import com.box.androidsdk.content.requests.BoxResponse;
 
+import android.text.TextUtils;
+
 import androidx.collection.LruCache;
 
+import java.util.Arrays;
+import java.util.WeakHashMap;
+
 /***
- * A very simple implementation of BoxCache that caches some folder responses in memory for faster retrieval.
+ * A very simple implementation of BoxCache that caches some folder responses in memory for faster retrieval: full
+ * folder listings, and the first page of folders listed page by page.
  */
 public class BoxSimpleLocalCache implements BoxCache {
 
@@ -27,10 +34,94 @@ public class BoxSimpleLocalCache implements BoxCache {
      */
     LruCache<String, BoxFolder> mFullFolderCache = new LruCache<String, BoxFolder>(10);
 
+    /**
+     * The first page cache.
+     */
+    LruCache<String, BoxIteratorItems> mFirstPageCache = new LruCache<String, BoxIteratorItems>(10);
+
+    // Sorted fields requested by folder requests, listings requested with different fields are cached apart
+    private final WeakHashMap<BoxRequest, String> mRequestToFields = new WeakHashMap<BoxRequest, String>();
+    // Page requests for the first page of a folder, pages at other offsets are not cached
+    private final WeakHashMap<BoxRequest, Boolean> mFirstPageRequests = new WeakHashMap<BoxRequest, Boolean>();
+
+    /**
+     * Associates a folder request with the fields it requests, so that a listing is only returned for requests of
+     * the same fields. Requests that are not bound share the listing cached by folder id.
+     *
+     * @param request the request
+     * @param fields  the fields requested
+     */
+    public void bindFields(BoxRequest request, String[] fields) {
+        String[] sortedFields = fields.clone();
+        Arrays.sort(sortedFields);
+        synchronized (mRequestToFields) {
+            mRequestToFields.put(request, TextUtils.join(",", sortedFields));
+        }
+    }
+
+    /**
+     * Marks a page request as the request for the first page of a folder, so that the page is cached and can be
+     * shown while it is fetched again. The request does not tell its offset, so page requests that are not bound
+     * are never cached.
+     *
+     * @param request the request for the first page
+     * @param fields  the fields requested
+     */
+    public void bindFirstPage(BoxRequestsFolder.GetFolderItems request, String[] fields) {
+        bindFields(request, fields);
+        synchronized (mFirstPageRequests) {
+            mFirstPageRequests.put(request, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Gets the fields a request was bound to.
+     *
+     * @param request the request
+     * @return the sorted fields joined by commas, or null if the request was not bound
+     */
+    protected String getFields(BoxRequest request) {
+        synchronized (mRequestToFields) {
+            return mRequestToFields.get(request);
+        }
+    }
+
+    /**
+     * Gets the key a folder listing is cached under.
+     *
+     * @param request the request for the folder
+     * @return the folder id, followed by the fields of the request if it was bound to them
+     */
+    protected String getKey(BoxRequestsFolder.GetFolderWithAllItems request) {
+        String fields = getFields(request);
+        return fields != null ? request.getId() + ":" + fields : request.getId();
+    }
+
+    /**
+     * Gets the key the first page of a folder is cached under.
+     *
+     * @param request the request for the page
+     * @return the folder id followed by the fields of the request, or null if the request was not bound with
+     * {@link #bindFirstPage(BoxRequestsFolder.GetFolderItems, String[])}
+     */
+    protected String getKey(BoxRequestsFolder.GetFolderItems request) {
+        synchronized (mFirstPageRequests) {
+            if (!mFirstPageRequests.containsKey(request)) {
+                return null;
+            }
+        }
+        return request.getId() + ":" + getFields(request);
+    }
+
     @Override
     public <T extends BoxObject> void put(BoxResponse<T> response) throws BoxException {
         if (response.isSuccess() && response.getRequest() instanceof BoxRequestsFolder.GetFolderWithAllItems){
-            mFullFolderCache.put(((BoxRequestsFolder.GetFolderWithAllItems) response.getRequest()).getId(), (BoxFolder)response.getResult());
+            mFullFolderCache.put(getKey((BoxRequestsFolder.GetFolderWithAllItems) response.getRequest()), (BoxFolder)response.getResult());
+        } else if (response.isSuccess() && response.getRequest() instanceof BoxRequestsFolder.GetFolderItems) {
+            String key = getKey((BoxRequestsFolder.GetFolderItems) response.getRequest());
+            if (key != null) {
+                mFirstPageCache.put(key, (BoxIteratorItems) response.getResult());
+            }
         }
     }
 
@@ -38,8 +129,11 @@ public class BoxSimpleLocalCache implements BoxCache {
     public <T extends BoxObject, R extends BoxRequest & BoxCacheableRequest> T get(R request) throws BoxException {
 
         if (request instanceof BoxRequestsFolder.GetFolderWithAllItems){
-            // Assume fields have not changed.
-            return (T)mFullFolderCache.get(((BoxRequestsFolder.GetFolderWithAllItems) request).getId());
+            return (T)mFullFolderCache.get(getKey((BoxRequestsFolder.GetFolderWithAllItems) request));
+        }
+        if (request instanceof BoxRequestsFolder.GetFolderItems) {
+            String key = getKey((BoxRequestsFolder.GetFolderItems) request);
+            return key != null ? (T) mFirstPageCache.get(key) : null;
         }
         return null;
     }
@@ -0,0 +1,378 @@
+package com.box.androidsdk.browse.service;
+
+import androidx.annotation.VisibleForTesting;
+
+import com.box.androidsdk.content.utils.BoxLogUtils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/***
+ * Size bounded least recently used index over the thumbnail cache directory. Files are recorded when they are
+ * written or read, and the least recently used ones are deleted in the background once the directory exceeds its
+ * budget.
+ *
+ * The index is persisted in the directory, so it is restored without listing the directory. The directory is only
+ * listed once, when no index has been persisted yet. Writes persist the index right away, reads at most once per
+ * {@link #INDEX_WRITE_INTERVAL_MILLIS}, so that sessions that only read thumbnails keep their least recently used
+ * order too.
+ */
+public class BoxThumbnailDiskCache {
+
+    private static final String TAG = BoxThumbnailDiskCache.class.getName();
+
+    private static final String INDEX_FILE_NAME = ".index";
+    private static final String TEMP_FILE_EXTENSION = ".tmp";
+    // Thumbnails still being downloaded, see LoaderDrawable.ThumbnailTask#getTempFile
+    private static final String DOWNLOAD_FILE_EXTENSION = ".part";
+
+    /**
+     * Minimum time between two writes of the index caused by reads only.
+     */
+    public static final long INDEX_WRITE_INTERVAL_MILLIS = 30 * 1000;
+
+    /**
+     * Default size budget of the thumbnail directory in bytes.
+     */
+    public static final long DEFAULT_MAX_SIZE = 50 * 1024 * 1024;
+
+    private final File mDirectory;
+    private final long mMaxSize;
+    private final ExecutorService mExecutor;
+
+    // File name to entry, in least recently used order. Loaded lazily off the ui thread.
+    private LinkedHashMap<String, Entry> mEntries;
+    private long mSize;
+    private boolean mIsMaintenanceScheduled;
+    private long mLastIndexWriteTime;
+
+    /**
+     * Instantiates a new Box thumbnail disk cache.
+     *
+     * @param directory the thumbnail directory
+     * @param maxSize   the maximum number of bytes the thumbnails may use on disk
+     */
+    public BoxThumbnailDiskCache(File directory, long maxSize) {
+        mDirectory = directory;
+        mMaxSize = maxSize;
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                new BoxBrowseExecutorConfig.NamedThreadFactory("BoxBrowse-thumbnail-trim-"));
+        executor.allowCoreThreadTimeOut(true);
+        mExecutor = executor;
+    }
+
+    /**
+     * Gets the thumbnail directory.
+     *
+     * @return the directory
+     */
+    public File getDirectory() {
+        return mDirectory;
+    }
+
+    /**
+     * Records that a thumbnail was shown from memory, so that it is evicted after the ones that were used less
+     * recently. This does not touch the disk and may be called on the ui thread, the index is persisted in the
+     * background.
+     *
+     * @param fileName the name of the thumbnail file
+     */
+    public void recordAccess(String fileName) {
+        synchronized (this) {
+            if (mEntries == null) {
+                // Accesses made before the index is loaded are not worth blocking a ui thread caller for.
+                return;
+            }
+            Entry entry = mEntries.get(fileName);
+            if (entry == null || !touch(entry)) {
+                return;
+            }
+        }
+        scheduleMaintenance();
+    }
+
+    /**
+     * Records that a thumbnail was read from disk. Must not be called on the ui thread, since the index may need
+     * to be loaded.
+     *
+     * @param file the thumbnail file
+     */
+    public void recordRead(File file) {
+        Entry entry;
+        boolean isIndexDue;
+        synchronized (this) {
+            ensureEntriesLoaded();
+            entry = mEntries.get(file.getName());
+            isIndexDue = entry != null && touch(entry);
+        }
+        if (entry == null) {
+            // Files written by others sharing the directory are adopted when first read.
+            recordWrite(file);
+        } else if (isIndexDue) {
+            scheduleMaintenance();
+        }
+    }
+
+    /**
+     * Records that a thumbnail was written, and trims the directory in the background if it exceeds its budget.
+     * Must not be called on the ui thread, since the index may need to be loaded.
+     *
+     * @param file the thumbnail file
+     */
+    public void recordWrite(File file) {
+        long length = file.length();
+        if (length <= 0) {
+            return;
+        }
+        synchronized (this) {
+            ensureEntriesLoaded();
+            Entry entry = mEntries.get(file.getName());
+            if (entry == null) {
+                entry = new Entry(length);
+                mEntries.put(file.getName(), entry);
+            } else {
+                mSize -= entry.mSize;
+                entry.mSize = length;
+            }
+            mSize += length;
+            entry.mAccessTime = getCurrentTimeMillis();
+        }
+        scheduleMaintenance();
+    }
+
+    /**
+     * Deletes all thumbnails and the index.
+     */
+    public synchronized void clear() {
+        File[] files = mDirectory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.isFile()) {
+                    file.delete();
+                }
+            }
+        }
+        mEntries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+        mSize = 0;
+    }
+
+    /**
+     * Gets the number of bytes used by the indexed thumbnails.
+     *
+     * @return the size in bytes
+     */
+    public synchronized long getSize() {
+        return mSize;
+    }
+
+    /**
+     * Gets the current time, in which the access times of thumbnails are recorded.
+     *
+     * @return the current time in milliseconds
+     */
+    protected long getCurrentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * Waits until the maintenance scheduled so far, trimming the directory and persisting the index, is done.
+     */
+    @VisibleForTesting
+    void awaitMaintenance() throws InterruptedException, ExecutionException {
+        mExecutor.submit(new Runnable() {
+            @Override
+            public void run() {
+            }
+        }).get();
+    }
+
+    /**
+     * Updates the access time of an entry.
+     *
+     * @return true if the index is due to be persisted
+     */
+    private boolean touch(Entry entry) {
+        entry.mAccessTime = getCurrentTimeMillis();
+        return entry.mAccessTime - mLastIndexWriteTime >= INDEX_WRITE_INTERVAL_MILLIS;
+    }
+
+    private void scheduleMaintenance() {
+        synchronized (this) {
+            if (mIsMaintenanceScheduled) {
+                return;
+            }
+            mIsMaintenanceScheduled = true;
+        }
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                ArrayList<String> evicted;
+                LinkedHashMap<String, Entry> snapshot;
+                synchronized (BoxThumbnailDiskCache.this) {
+                    mIsMaintenanceScheduled = false;
+                    mLastIndexWriteTime = getCurrentTimeMillis();
+                    ensureEntriesLoaded();
+                    evicted = trimToSize();
+                    snapshot = new LinkedHashMap<String, Entry>();
+                    for (Map.Entry<String, Entry> entry : mEntries.entrySet()) {
+                        snapshot.put(entry.getKey(), new Entry(entry.getValue()));
+                    }
+                }
+                for (String fileName : evicted) {
+                    new File(mDirectory, fileName).delete();
+                }
+                writeIndex(snapshot);
+            }
+        });
+    }
+
+    private ArrayList<String> trimToSize() {
+        ArrayList<String> evicted = new ArrayList<String>();
+        Iterator<Map.Entry<String, Entry>> iterator = mEntries.entrySet().iterator();
+        while (mSize > mMaxSize && iterator.hasNext()) {
+            Map.Entry<String, Entry> eldest = iterator.next();
+            evicted.add(eldest.getKey());
+            mSize -= eldest.getValue().mSize;
+            iterator.remove();
+        }
+        return evicted;
+    }
+
+    private void ensureEntriesLoaded() {
+        if (mEntries != null) {
+            return;
+        }
+        ArrayList<Map.Entry<String, Entry>> entries = readIndex();
+        if (entries == null) {
+            entries = scanDirectory();
+        }
+        Collections.sort(entries, new Comparator<Map.Entry<String, Entry>>() {
+            @Override
+            public int compare(Map.Entry<String, Entry> lhs, Map.Entry<String, Entry> rhs) {
+                return Long.compare(lhs.getValue().mAccessTime, rhs.getValue().mAccessTime);
+            }
+        });
+        mEntries = new LinkedHashMap<String, Entry>(Math.max(16, entries.size() * 2), 0.75f, true);
+        mSize = 0;
+        mLastIndexWriteTime = getCurrentTimeMillis();
+        for (Map.Entry<String, Entry> entry : entries) {
+            mEntries.put(entry.getKey(), entry.getValue());
+            mSize += entry.getValue().mSize;
+        }
+    }
+
+    private ArrayList<Map.Entry<String, Entry>> readIndex() {
+        File indexFile = new File(mDirectory, INDEX_FILE_NAME);
+        if (!indexFile.exists()) {
+            return null;
+        }
+        ArrayList<Map.Entry<String, Entry>> entries = new ArrayList<Map.Entry<String, Entry>>();
+        BufferedReader reader = null;
+        try {
+            reader = new BufferedReader(new FileReader(indexFile));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(" ");
+                if (parts.length != 3) {
+                    continue;
+                }
+                Entry entry = new Entry(Long.parseLong(parts[1]));
+                entry.mAccessTime = Long.parseLong(parts[2]);
+                entries.add(new AbstractMap.SimpleEntry<String, Entry>(parts[0], entry));
+            }
+            return entries;
+        } catch (IOException | NumberFormatException e) {
+            // A corrupt index is rebuilt from the directory.
+            BoxLogUtils.e(TAG, e);
+            return null;
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    // Ignore errors in closing the index.
+                }
+            }
+        }
+    }
+
+    private ArrayList<Map.Entry<String, Entry>> scanDirectory() {
+        ArrayList<Map.Entry<String, Entry>> entries = new ArrayList<Map.Entry<String, Entry>>();
+        File[] files = mDirectory.listFiles();
+        if (files == null) {
+            return entries;
+        }
+        for (File file : files) {
+            if (!file.isFile() || file.getName().startsWith(".") || file.getName().endsWith(DOWNLOAD_FILE_EXTENSION)
+                    || file.length() <= 0) {
+                continue;
+            }
+            Entry entry = new Entry(file.length());
+            entry.mAccessTime = file.lastModified();
+            entries.add(new AbstractMap.SimpleEntry<String, Entry>(file.getName(), entry));
+        }
+        return entries;
+    }
+
+    private void writeIndex(LinkedHashMap<String, Entry> entries) {
+        if (!mDirectory.exists()) {
+            return;
+        }
+        File tempFile = new File(mDirectory, INDEX_FILE_NAME + TEMP_FILE_EXTENSION);
+        BufferedWriter writer = null;
+        try {
+            writer = new BufferedWriter(new FileWriter(tempFile));
+            for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                writer.write(entry.getKey() + " " + entry.getValue().mSize + " " + entry.getValue().mAccessTime);
+                writer.newLine();
+            }
+            writer.close();
+            writer = null;
+            if (!tempFile.renameTo(new File(mDirectory, INDEX_FILE_NAME))) {
+                tempFile.delete();
+            }
+        } catch (IOException e) {
+            BoxLogUtils.e(TAG, e);
+            tempFile.delete();
+        } finally {
+            if (writer != null) {
+                try {
+                    writer.close();
+                } catch (IOException e) {
+                    // Ignore errors in closing the index.
+                }
+            }
+        }
+    }
+
+    private static class Entry {
+
+        private long mSize;
+        private long mAccessTime;
+
+        Entry(long size) {
+            mSize = size;
+        }
+
+        Entry(Entry entry) {
+            mSize = entry.mSize;
+            mAccessTime = entry.mAccessTime;
+        }
+    }
+}
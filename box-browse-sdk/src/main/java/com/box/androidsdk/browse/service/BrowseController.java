@@ -5,8 +5,11 @@ import android.graphics.Bitmap;
 
 import androidx.collection.LruCache;
 
+import com.box.androidsdk.browse.uidata.BitmapPool;
+import com.box.androidsdk.browse.uidata.ThumbnailCacheKey;
 import com.box.androidsdk.browse.uidata.ThumbnailManager;
 import com.box.androidsdk.content.BoxFutureTask;
+import com.box.androidsdk.content.models.BoxFolder;
 import com.box.androidsdk.content.models.BoxItem;
 import com.box.androidsdk.content.models.BoxRepresentation;
 import com.box.androidsdk.content.models.BoxUser;
@@ -25,6 +28,58 @@ import java.util.concurrent.ThreadPoolExecutor;
  */
 public interface BrowseController {
 
+    /***
+     * Named sets of fields requested for the items shown by the browse fragments. Each profile only contains
+     * the fields that are read by the views using it, which keeps the responses of large folders and searches small.
+     */
+    enum FieldProfile {
+        /**
+         * Fields rendered by the rows of the item list and search results.
+         */
+        LIST,
+        /**
+         * Fields rendered by the tiles of the media grid.
+         */
+        MEDIA_GRID,
+        /**
+         * Fields rendered by the list plus the ones needed to return an item from a picker activity.
+         */
+        PICKER
+    }
+
+    /***
+     * Priority classes of executed requests. Queued requests of a higher class run before those of a lower one.
+     */
+    enum Priority {
+        /**
+         * Work the user is waiting on, such as opening a folder or running a search.
+         */
+        USER_INITIATED,
+        /**
+         * Content shown on screen, such as the thumbnails of bound rows.
+         */
+        VISIBLE,
+        /**
+         * Content that is likely to be shown soon, such as the next page of a folder.
+         */
+        PREFETCH,
+        /**
+         * Work nobody is waiting on.
+         */
+        BACKGROUND
+    }
+
+    /***
+     * Gets the fields that are requested for the given profile. Defaults to all the fields of a folder for every
+     * profile.
+     *
+     * @param profile the field profile
+     * @return the fields of the profile
+     */
+    default String[] getFields(FieldProfile profile) {
+        return BoxFolder.ALL_FIELDS;
+    }
+
     /***
      * Retrieves a folder with all its items. The response will be returned through the provided listener
      *
@@ -33,6 +88,54 @@ public interface BrowseController {
      */
     BoxRequestsFolder.GetFolderWithAllItems getFolderWithAllItems(String folderId);
 
+    /***
+     * Retrieves a folder with all its items, requesting only the fields of the given profile. Defaults to
+     * {@link #getFolderWithAllItems(String)}.
+     *
+     * @param folderId the folder id
+     * @param profile  the field profile of the items
+     * @return the folder with all items
+     */
+    default BoxRequestsFolder.GetFolderWithAllItems getFolderWithAllItems(String folderId, FieldProfile profile) {
+        return getFolderWithAllItems(folderId);
+    }
+
+    /**
+     * Whether this controller implements {@link #getFolderInfoRequest(String)} and
+     * {@link #getFolderItemsRequest(String, int, int, FieldProfile)}. Fragments given a page size fall back to
+     * listing the whole folder through {@link #getFolderWithAllItems(String, FieldProfile)} when it does not.
+     *
+     * @return true if folders can be listed page by page
+     */
+    default boolean supportsPaging() {
+        return false;
+    }
+
+    /***
+     * Retrieves information about a folder without its item collection. This is meant to be used alongside
+     * {@link #getFolderItemsRequest(String, int, int, FieldProfile)} when the items of a folder are loaded page by
+     * page. Only called if {@link #supportsPaging()} returns true.
+     *
+     * @param folderId the folder id
+     * @return the folder info request
+     */
+    default BoxRequestsFolder.GetFolderInfo getFolderInfoRequest(String folderId) {
+        throw new UnsupportedOperationException("Paged folder listings are not supported by " + getClass().getName());
+    }
+
+    /***
+     * Retrieves a single page of items of a folder. Only called if {@link #supportsPaging()} returns true.
+     *
+     * @param folderId the folder id
+     * @param offset   the index of the first item of the page
+     * @param limit    the maximum number of items in the page
+     * @param profile  the field profile of the items
+     * @return the folder items request
+     */
+    default BoxRequestsFolder.GetFolderItems getFolderItemsRequest(String folderId, int offset, int limit, FieldProfile profile) {
+        throw new UnsupportedOperationException("Paged folder listings are not supported by " + getClass().getName());
+    }
+
     /***
      * Retrieves search results for the given query
      *
@@ -41,6 +144,18 @@ public interface BrowseController {
      */
     BoxRequestsSearch.Search getSearchRequest(String query);
 
+    /***
+     * Retrieves search results for the given query, requesting only the fields of the given profile. Defaults to
+     * {@link #getSearchRequest(String)}.
+     *
+     * @param query   the query
+     * @param profile the field profile of the results
+     * @return search request
+     */
+    default BoxRequestsSearch.Search getSearchRequest(String query, FieldProfile profile) {
+        return getSearchRequest(query);
+    }
+
     /***
      * Retrieves a thumbnail for a file. The response will be returned through the provided listener
      *
@@ -70,6 +185,17 @@ public interface BrowseController {
      */
     void execute(BoxRequest request);
 
+    /***
+     * Executes the request using the appropriate executor, ahead of queued requests of a lower priority. Defaults to
+     * {@link #execute(BoxRequest)}.
+     *
+     * @param request  the request
+     * @param priority the priority of the request
+     */
+    default void execute(BoxRequest request, Priority priority) {
+        execute(request);
+    }
+
     /***
      * Sets the default completed listener that will be used after the completion of a BoxRequest
      *
@@ -140,9 +266,22 @@ public interface BrowseController {
      * Gets thumbnail cache.
      *
      * @return the thumbnail cache
+     * @deprecated this cache is inert: the thumbnail manager neither reads nor fills it, so lookups through it always
+     * miss and bitmaps put into it are never shown. Thumbnails are cached by file id, sha1 and size class, use
+     * {@link #getThumbnailMemoryCache()} instead.
      */
+    @Deprecated
     LruCache<File, Bitmap> getThumbnailCache();
 
+    /**
+     * Gets the memory cache of decoded thumbnails and representations, keyed by {@link ThumbnailCacheKey}.
+     *
+     * @return the thumbnail memory cache, or null to not keep thumbnails in memory
+     */
+    default LruCache<ThumbnailCacheKey, Bitmap> getThumbnailMemoryCache() {
+        return null;
+    }
+
     /**
      * Gets icon resource cache.
      *
@@ -150,6 +289,24 @@ public interface BrowseController {
      */
     LruCache<Integer, Bitmap> getIconResourceCache();
 
+    /**
+     * Returns the size bounded index over the thumbnail cache directory
+     *
+     * @return the thumbnail disk cache, or null if the directory is not bounded
+     */
+    default BoxThumbnailDiskCache getThumbnailDiskCache() {
+        return null;
+    }
+
+    /**
+     * Returns the pool bitmaps evicted from the thumbnail cache are kept in for reuse
+     *
+     * @return the bitmap pool, or null if bitmaps are not reused
+     */
+    default BitmapPool getBitmapPool() {
+        return null;
+    }
+
     /**
      * Returns the executor used for thumbnail api requests
      *
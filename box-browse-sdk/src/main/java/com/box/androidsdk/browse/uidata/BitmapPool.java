@@ -0,0 +1,211 @@
+package com.box.androidsdk.browse.uidata;
+
+import android.graphics.Bitmap;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.widget.ImageView;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+
+/**
+ * Holds bitmaps evicted from the thumbnail cache so that their memory can be reused through
+ * {@link android.graphics.BitmapFactory.Options#inBitmap} when decoding the next thumbnails, instead of being
+ * garbage collected. Bitmaps are bucketed by allocation size.
+ *
+ * A bitmap is only pooled while no view shows it or waits to show it, which is tracked through
+ * {@link #setPending(ImageView, Bitmap)} from decode until delivery and {@link #setDisplayed(ImageView, Bitmap)} after.
+ */
+public class BitmapPool {
+
+    // A pooled bitmap is not handed out for a bitmap needing less than a quarter of its memory
+    private static final int MAX_SIZE_MULTIPLE = 4;
+
+    private final long mMaxSize;
+    private long mSize;
+    private final TreeMap<Integer, ArrayDeque<Bitmap>> mBuckets = new TreeMap<Integer, ArrayDeque<Bitmap>>();
+    private final WeakHashMap<ImageView, Bitmap> mPendingBitmaps = new WeakHashMap<ImageView, Bitmap>();
+    private final WeakHashMap<ImageView, Bitmap> mDisplayedBitmaps = new WeakHashMap<ImageView, Bitmap>();
+    // Views each bitmap is pending or displayed in, the inverse of the maps above. Bitmaps compare by identity.
+    private final WeakHashMap<Bitmap, WeakHashMap<ImageView, Boolean>> mViewsByBitmap = new WeakHashMap<Bitmap, WeakHashMap<ImageView, Boolean>>();
+
+    /**
+     * Instantiates a new Bitmap pool.
+     *
+     * @param maxSizeInBytes the maximum number of bytes of the pooled bitmaps
+     */
+    public BitmapPool(long maxSizeInBytes) {
+        mMaxSize = maxSizeInBytes;
+    }
+
+    /**
+     * Adds a bitmap to the pool. Bitmaps that are immutable, recycled, shown by a view or waiting to be shown are
+     * ignored.
+     *
+     * @param bitmap the bitmap that is no longer used
+     */
+    public synchronized void put(Bitmap bitmap) {
+        if (bitmap == null || bitmap.isRecycled() || !bitmap.isMutable() || isInUse(bitmap)) {
+            return;
+        }
+        int size = bitmap.getAllocationByteCount();
+        if (size > mMaxSize) {
+            return;
+        }
+        ArrayDeque<Bitmap> bucket = mBuckets.get(size);
+        if (bucket == null) {
+            bucket = new ArrayDeque<Bitmap>();
+            mBuckets.put(size, bucket);
+        }
+        bucket.push(bitmap);
+        mSize += size;
+        trimToSize();
+    }
+
+    /**
+     * Takes a bitmap out of the pool that can be reused to decode a bitmap of the given size.
+     *
+     * @param width  the width of the bitmap to decode
+     * @param height the height of the bitmap to decode
+     * @param config the config of the bitmap to decode
+     * @return a bitmap, or null if none is large enough
+     */
+    public synchronized Bitmap get(int width, int height, Bitmap.Config config) {
+        int requiredSize = width * height * getBytesPerPixel(config);
+        Map.Entry<Integer, ArrayDeque<Bitmap>> entry = mBuckets.ceilingEntry(requiredSize);
+        if (entry == null || entry.getKey() / MAX_SIZE_MULTIPLE > requiredSize) {
+            return null;
+        }
+        Bitmap bitmap = entry.getValue().pop();
+        if (entry.getValue().isEmpty()) {
+            mBuckets.remove(entry.getKey());
+        }
+        mSize -= entry.getKey();
+        return bitmap;
+    }
+
+    /**
+     * Records a bitmap decoded for a view, so that it is not pooled while it waits to be shown, e.g. when it is
+     * evicted from the cache while its delivery is held back during a fling.
+     *
+     * @param view   the view
+     * @param bitmap the bitmap
+     */
+    public synchronized void setPending(ImageView view, Bitmap bitmap) {
+        Bitmap previous = mPendingBitmaps.put(view, bitmap);
+        track(view, bitmap);
+        untrack(view, previous);
+    }
+
+    /**
+     * Forgets the bitmap waiting to be shown in a view, because its delivery was dropped.
+     *
+     * @param view the view
+     */
+    public synchronized void clearPending(ImageView view) {
+        untrack(view, mPendingBitmaps.remove(view));
+    }
+
+    /**
+     * Forgets a bitmap waiting to be shown in a view, unless another bitmap has been decoded for the view since.
+     *
+     * @param view   the view
+     * @param bitmap the bitmap whose delivery was dropped
+     */
+    public synchronized void clearPending(ImageView view, Bitmap bitmap) {
+        if (mPendingBitmaps.get(view) == bitmap) {
+            mPendingBitmaps.remove(view);
+            untrack(view, bitmap);
+        }
+    }
+
+    /**
+     * Records the bitmap a view was given, so that it is not pooled while the view still shows it.
+     *
+     * @param view   the view
+     * @param bitmap the bitmap
+     */
+    public synchronized void setDisplayed(ImageView view, Bitmap bitmap) {
+        clearPending(view, bitmap);
+        Bitmap previous = mDisplayedBitmaps.put(view, bitmap);
+        track(view, bitmap);
+        untrack(view, previous);
+    }
+
+    /**
+     * Removes all bitmaps from the pool.
+     */
+    public synchronized void clear() {
+        mBuckets.clear();
+        mSize = 0;
+    }
+
+    /**
+     * Whether a view waits to show the bitmap or still shows it. Only the views recorded for the bitmap are checked.
+     */
+    private boolean isInUse(Bitmap bitmap) {
+        WeakHashMap<ImageView, Boolean> views = mViewsByBitmap.get(bitmap);
+        if (views == null) {
+            return false;
+        }
+        for (ImageView view : views.keySet()) {
+            if (mPendingBitmaps.get(view) == bitmap) {
+                return true;
+            }
+            // A displayed bitmap is released once its view shows something else, even if the pool was not told.
+            Drawable drawable = view.getDrawable();
+            if (drawable instanceof BitmapDrawable && ((BitmapDrawable) drawable).getBitmap() == bitmap) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void track(ImageView view, Bitmap bitmap) {
+        WeakHashMap<ImageView, Boolean> views = mViewsByBitmap.get(bitmap);
+        if (views == null) {
+            views = new WeakHashMap<ImageView, Boolean>();
+            mViewsByBitmap.put(bitmap, views);
+        }
+        views.put(view, Boolean.TRUE);
+    }
+
+    private void untrack(ImageView view, Bitmap bitmap) {
+        // The view may still be pending and displayed with the same bitmap
+        if (bitmap == null || mPendingBitmaps.get(view) == bitmap || mDisplayedBitmaps.get(view) == bitmap) {
+            return;
+        }
+        WeakHashMap<ImageView, Boolean> views = mViewsByBitmap.get(bitmap);
+        if (views != null) {
+            views.remove(view);
+            if (views.isEmpty()) {
+                mViewsByBitmap.remove(bitmap);
+            }
+        }
+    }
+
+    private void trimToSize() {
+        while (mSize > mMaxSize && !mBuckets.isEmpty()) {
+            // Drop the largest bitmaps first, they are the least likely to fit a thumbnail.
+            Map.Entry<Integer, ArrayDeque<Bitmap>> largest = mBuckets.lastEntry();
+            largest.getValue().removeLast();
+            if (largest.getValue().isEmpty()) {
+                mBuckets.remove(largest.getKey());
+            }
+            mSize -= largest.getKey();
+        }
+    }
+
+    private static int getBytesPerPixel(Bitmap.Config config) {
+        if (config == Bitmap.Config.RGB_565) {
+            return 2;
+        } else if (config == Bitmap.Config.ALPHA_8) {
+            return 1;
+        } else if (config == Bitmap.Config.RGBA_F16) {
+            return 8;
+        }
+        return 4;
+    }
+}
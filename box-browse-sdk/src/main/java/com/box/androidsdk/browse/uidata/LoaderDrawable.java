@@ -7,6 +7,7 @@ import android.graphics.drawable.BitmapDrawable;
 import android.widget.ImageView;
 
 import androidx.annotation.UiThread;
+import androidx.annotation.WorkerThread;
 
 import com.box.androidsdk.content.BoxFutureTask;
 import com.box.androidsdk.content.models.BoxDownload;
@@ -17,7 +18,10 @@ import com.box.androidsdk.content.requests.BoxRequestsFile;
 import com.box.androidsdk.content.requests.BoxResponse;
 
 import java.io.File;
+import java.io.IOException;
 import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.concurrent.Callable;
 
 /**
@@ -55,10 +59,29 @@ public class LoaderDrawable extends BitmapDrawable {
         return new LoaderDrawable(ThumbnailTask.create(request, boxItem, imageView, imageReadyListener),imageView.getResources(), placeHolder);
     }
 
+    /**
+     * Creates a LoaderDrawable that is responsible for loading a thumbnail into the provided image view
+     *
+     * @param request            the request, downloading to {@link ThumbnailTask#getTempFile(File)} of the destination
+     * @param destination        the file the thumbnail is cached in
+     * @param boxItem            the box item
+     * @param imageView          the image view
+     * @param placeHolder        the place holder
+     * @param imageReadyListener the image ready listener
+     * @return loader drawable
+     */
+    public static LoaderDrawable create(BoxRequestsFile.DownloadThumbnail request, File destination, final BoxItem boxItem, ImageView imageView, Bitmap placeHolder, final ImageReadyListener imageReadyListener) {
+        return new LoaderDrawable(ThumbnailTask.create(request, destination, boxItem, imageView, imageReadyListener),imageView.getResources(), placeHolder);
+    }
+
     public static LoaderDrawable create(BoxRequestsFile.DownloadRepresentation request, final BoxItem boxItem, ImageView imageView, Bitmap placeHolder, final ImageReadyListener imageReadyListener) {
         return new LoaderDrawable(ThumbnailTask.create(request, boxItem, imageView, imageReadyListener),imageView.getResources(), placeHolder);
     }
 
+    public static LoaderDrawable create(BoxRequestsFile.DownloadRepresentation request, File destination, final BoxItem boxItem, ImageView imageView, Bitmap placeHolder, final ImageReadyListener imageReadyListener) {
+        return new LoaderDrawable(ThumbnailTask.create(request, destination, boxItem, imageView, imageReadyListener),imageView.getResources(), placeHolder);
+    }
+
     /**
      * Checks to see if this loader drawable matches the given request.
      *
@@ -77,6 +100,11 @@ public class LoaderDrawable extends BitmapDrawable {
      */
     static class ThumbnailTask extends BoxFutureTask<BoxDownload> {
 
+        private static final String TEMP_FILE_EXTENSION = ".part";
+
+        // Downloads in progress by destination path, so that tasks for the same file share a single download
+        private static final HashMap<String, PendingDownload> mPendingDownloads = new HashMap<String, PendingDownload>();
+
         private final String mKey;
         private final BoxItem mBoxItem;
 
@@ -139,45 +167,339 @@ public class LoaderDrawable extends BitmapDrawable {
          * @return the thumbnail task
          */
         public static ThumbnailTask create(final BoxRequestDownload request, final BoxItem boxItem, ImageView targetView, final ImageReadyListener imageReadyListener) {
-            final WeakReference<ImageView> targetRef = new WeakReference<ImageView>(targetView);
+            return create(request, request.getTarget(), boxItem, targetView, imageReadyListener);
+        }
+
+        /**
+         * Create a thumbnail task.
+         *
+         * @param request            the request
+         * @param destination        the file the thumbnail is cached in. If it differs from the target of the request
+         *                           the download is moved there once complete.
+         * @param boxItem            the box item
+         * @param targetView         the target
+         * @param imageReadyListener the image ready listener
+         * @return the thumbnail task
+         */
+        public static ThumbnailTask create(final BoxRequestDownload request, final File destination, final BoxItem boxItem, ImageView targetView, final ImageReadyListener imageReadyListener) {
+            final ImageDelivery delivery = new ImageDelivery(request, destination, targetView, imageReadyListener);
             Callable<BoxResponse<BoxDownload>> callable = () -> {
                 BoxDownload ret = null;
                 Exception ex = null;
                 try {
-                    File imageFile = request.getTarget();
-                    boolean isCached = imageFile.exists() && imageFile.length() > 0;
-                    if (!isCached) {
+                    if (!isCached(destination)) {
                         // If the image has not been cached we make the remote call
-                        ret = (BoxDownload)request.send();
-                    }
-                    Bitmap bm = BitmapFactory.decodeFile(imageFile.getAbsolutePath());
-                    // Ensure that the image view has not been recycled before setting the image
-                    final ImageView target = targetRef.get();
-                    if (bm != null && target != null) {
-                        target.post(() -> {
-                            final String key = createRequestKey(request);
-                            if (target.getDrawable() instanceof LoaderDrawable &&
-                                    ((LoaderDrawable) target.getDrawable()).getTask().getKey().equals(key)) {
-                                imageReadyListener.onImageReady(imageFile, request, bm, target);
-                            }
-                        });
+                        PendingDownload pending = startDownload(destination, delivery);
+                        if (pending == null) {
+                            // Another task is downloading it and delivers the image to this one once done, rather
+                            // than this worker waiting for a download whose task may be queued behind it.
+                            return new BoxResponse<>(null, null, request);
+                        }
+                        ret = download(request, destination, pending);
+                        imageReadyListener.onImageFileWritten(destination);
+                    } else {
+                        imageReadyListener.onImageFileRead(destination);
                     }
+                    delivery.deliver();
                 } catch (Exception e) {
                     ex = e;
                 }
                 final BoxResponse<BoxDownload> response = new BoxResponse<>(ret, ex, request);
-                if (ex != null){
-                    final ImageView target = targetRef.get();
-                    if (target != null) {
-                        target.post(() -> {
-                            imageReadyListener.onImageException(response, targetRef.get());
-                        });
-                    }
+                if (ex != null) {
+                    delivery.fail(response);
                 }
                 return response;
             };
             return new ThumbnailTask(callable, request, boxItem);
         }
+
+        /**
+         * Create a task that only downloads a thumbnail to its destination, without decoding it, so that it is
+         * already on disk by the time a view is bound to it. A task for a view started meanwhile joins the download,
+         * a prefetch joining a download in progress completes right away.
+         *
+         * @param request            the request, downloading to {@link #getTempFile(File)} of the destination
+         * @param destination        the file the thumbnail is cached in
+         * @param boxItem            the box item
+         * @param imageReadyListener the listener told about the written file
+         * @return the thumbnail task
+         */
+        public static ThumbnailTask createPrefetch(final BoxRequestDownload request, final File destination, final BoxItem boxItem, final ImageReadyListener imageReadyListener) {
+            Callable<BoxResponse<BoxDownload>> callable = new Callable<BoxResponse<BoxDownload>>() {
+                @Override
+                public BoxResponse<BoxDownload> call() throws Exception {
+                    BoxDownload ret = null;
+                    Exception ex = null;
+                    try {
+                        if (!isCached(destination)) {
+                            // A download already in progress writes the file without this task
+                            PendingDownload pending = startDownload(destination, null);
+                            if (pending != null) {
+                                ret = download(request, destination, pending);
+                                imageReadyListener.onImageFileWritten(destination);
+                            }
+                        }
+                    } catch (Exception e) {
+                        ex = e;
+                    }
+                    return new BoxResponse<BoxDownload>(ret, ex, request);
+                }
+            };
+            return new ThumbnailTask(callable, request, boxItem);
+        }
+
+        /**
+         * Gets the file a thumbnail is downloaded to before it is moved to its destination, so that a partially
+         * downloaded thumbnail is never decoded.
+         *
+         * @param destination the file the thumbnail is cached in
+         * @return the temporary file
+         */
+        static File getTempFile(File destination) {
+            return new File(destination.getParentFile(), destination.getName() + TEMP_FILE_EXTENSION);
+        }
+
+        /**
+         * Decodes an image file, subsampled to the smallest power of two reduction that still covers the requested
+         * size. The image is decoded at full size if no size is requested. Decoded bitmaps are mutable, so that they
+         * can be pooled and reused once evicted, except for {@link Bitmap.Config#HARDWARE} bitmaps, which can be
+         * neither.
+         *
+         * @param imageFile    the image file
+         * @param reqWidth     the requested width, or 0
+         * @param reqHeight    the requested height, or 0
+         * @param bitmapConfig the preferred bitmap config
+         * @param bitmapPool   the pool to reuse a bitmap from, or null
+         * @return the bitmap, or null if the file could not be decoded
+         */
+        static Bitmap decodeSampledBitmap(File imageFile, int reqWidth, int reqHeight, Bitmap.Config bitmapConfig, BitmapPool bitmapPool) {
+            String path = imageFile.getAbsolutePath();
+            BitmapFactory.Options options = new BitmapFactory.Options();
+            options.inPreferredConfig = bitmapConfig;
+            options.inJustDecodeBounds = true;
+            BitmapFactory.decodeFile(path, options);
+            if (reqWidth > 0 && reqHeight > 0) {
+                options.inSampleSize = calculateInSampleSize(options.outWidth, options.outHeight, reqWidth, reqHeight);
+            }
+            options.inJustDecodeBounds = false;
+            boolean isReusable = bitmapConfig != Bitmap.Config.HARDWARE;
+            options.inMutable = isReusable;
+            if (isReusable && bitmapPool != null && options.outWidth > 0 && options.outHeight > 0) {
+                int sampledWidth = (options.outWidth + options.inSampleSize - 1) / options.inSampleSize;
+                int sampledHeight = (options.outHeight + options.inSampleSize - 1) / options.inSampleSize;
+                options.inBitmap = bitmapPool.get(sampledWidth, sampledHeight, bitmapConfig);
+            }
+            try {
+                return BitmapFactory.decodeFile(path, options);
+            } catch (IllegalArgumentException e) {
+                if (options.inBitmap == null) {
+                    throw e;
+                }
+                // The pooled bitmap could not be reused for this image.
+                options.inBitmap = null;
+                return BitmapFactory.decodeFile(path, options);
+            }
+        }
+
+        private static int calculateInSampleSize(int width, int height, int reqWidth, int reqHeight) {
+            int inSampleSize = 1;
+            while (width / (inSampleSize * 2) >= reqWidth && height / (inSampleSize * 2) >= reqHeight) {
+                inSampleSize *= 2;
+            }
+            return inSampleSize;
+        }
+
+        static int getTargetWidth(ImageView view) {
+            if (view.getMeasuredWidth() > 0) {
+                return view.getMeasuredWidth();
+            }
+            return view.getLayoutParams() != null ? Math.max(view.getLayoutParams().width, 0) : 0;
+        }
+
+        static int getTargetHeight(ImageView view) {
+            if (view.getMeasuredHeight() > 0) {
+                return view.getMeasuredHeight();
+            }
+            return view.getLayoutParams() != null ? Math.max(view.getLayoutParams().height, 0) : 0;
+        }
+
+        private static boolean isCached(File imageFile) {
+            return imageFile.exists() && imageFile.length() > 0;
+        }
+
+        /**
+         * Registers a download of a thumbnail to its destination. If one is already in progress, the follower is
+         * added to it instead and called by the thread completing it.
+         *
+         * @param destination the file the thumbnail is cached in
+         * @param follower    the follower to call once a download in progress completes, or null
+         * @return the registered download, to be made with {@link #download(BoxRequestDownload, File, PendingDownload)},
+         * or null if a download was already in progress
+         */
+        private static PendingDownload startDownload(File destination, DownloadFollower follower) {
+            String key = destination.getAbsolutePath();
+            synchronized (mPendingDownloads) {
+                PendingDownload pending = mPendingDownloads.get(key);
+                if (pending != null) {
+                    // Downloads leave the map before completing, under this lock, so the follower is always called.
+                    if (follower != null) {
+                        pending.addFollower(follower);
+                    }
+                    return null;
+                }
+                pending = new PendingDownload();
+                mPendingDownloads.put(key, pending);
+                return pending;
+            }
+        }
+
+        /**
+         * Downloads the thumbnail to its destination, then completes the download registered for it.
+         */
+        private static BoxDownload download(BoxRequestDownload request, File destination, PendingDownload pending) throws Exception {
+            BoxDownload download = null;
+            Exception ex = null;
+            try {
+                // Another download may have completed between the caller's check and registering this one.
+                if (!isCached(destination)) {
+                    File target = request.getTarget();
+                    // Files are only created here, the directory may have been cleared since the request was made.
+                    if (!target.getParentFile().exists()) {
+                        target.getParentFile().mkdirs();
+                    }
+                    download = (BoxDownload) request.send();
+                    if (!target.equals(destination) && !target.renameTo(destination)) {
+                        target.delete();
+                        throw new IOException("Unable to move downloaded thumbnail to " + destination.getName());
+                    }
+                }
+                return download;
+            } catch (Exception e) {
+                ex = e;
+                throw e;
+            } finally {
+                synchronized (mPendingDownloads) {
+                    mPendingDownloads.remove(destination.getAbsolutePath());
+                }
+                pending.complete(ex);
+            }
+        }
+    }
+
+    /**
+     * Decodes a thumbnail file for a view and hands it to the ui thread, either on the task loading it or, if that
+     * task joined a download in progress, on the thread completing the download.
+     */
+    private static class ImageDelivery implements DownloadFollower {
+
+        private final BoxRequestDownload mRequest;
+        private final File mImageFile;
+        private final WeakReference<ImageView> mTargetRef;
+        private final int mTargetWidth;
+        private final int mTargetHeight;
+        private final Bitmap.Config mBitmapConfig;
+        private final BitmapPool mBitmapPool;
+        private final ImageReadyListener mImageReadyListener;
+
+        ImageDelivery(BoxRequestDownload request, File imageFile, ImageView targetView, ImageReadyListener imageReadyListener) {
+            mRequest = request;
+            mImageFile = imageFile;
+            mTargetRef = new WeakReference<ImageView>(targetView);
+            // Read on the ui thread, the view may be rebound by the time the task runs
+            mTargetWidth = ThumbnailTask.getTargetWidth(targetView);
+            mTargetHeight = ThumbnailTask.getTargetHeight(targetView);
+            mBitmapConfig = imageReadyListener.getPreferredBitmapConfig();
+            mBitmapPool = imageReadyListener.getBitmapPool();
+            mImageReadyListener = imageReadyListener;
+        }
+
+        @Override
+        public void onDownloadCompleted(Exception ex) {
+            if (ex != null) {
+                fail(new BoxResponse<BoxDownload>(null, ex, mRequest));
+                return;
+            }
+            try {
+                deliver();
+            } catch (Exception e) {
+                fail(new BoxResponse<BoxDownload>(null, e, mRequest));
+            }
+        }
+
+        void deliver() {
+            // A view that was not laid out yet at bind time usually is by now. Its measured size is a plain
+            // field, a stale read only affects how the thumbnail is sized.
+            final ImageView sizedTarget = mTargetRef.get();
+            int width = mTargetWidth > 0 || sizedTarget == null ? mTargetWidth : ThumbnailTask.getTargetWidth(sizedTarget);
+            int height = mTargetHeight > 0 || sizedTarget == null ? mTargetHeight : ThumbnailTask.getTargetHeight(sizedTarget);
+            Bitmap decoded = ThumbnailTask.decodeSampledBitmap(mImageFile, width, height, mBitmapConfig, mBitmapPool);
+            final Bitmap bm = decoded != null ? mImageReadyListener.resizeBitmap(mRequest, decoded, width, height) : null;
+            // Ensure that the image view has not been recycled before setting the image
+            final ImageView target = mTargetRef.get();
+            if (bm != null && target != null) {
+                if (mBitmapPool != null) {
+                    // The bitmap may be cached and evicted again before it is shown
+                    mBitmapPool.setPending(target, bm);
+                }
+                mImageReadyListener.runOnUiThread(target, new Runnable() {
+                    @Override
+                    public void run() {
+                        final String key = ThumbnailTask.createRequestKey(mRequest);
+                        if (target.getDrawable() instanceof LoaderDrawable &&
+                                ((LoaderDrawable) target.getDrawable()).getTask().getKey().equals(key)) {
+                            mImageReadyListener.onImageReady(mImageFile, mRequest, bm, target);
+                        } else if (mBitmapPool != null) {
+                            mBitmapPool.clearPending(target, bm);
+                        }
+                    }
+                });
+            }
+        }
+
+        void fail(final BoxResponse<BoxDownload> response) {
+            final ImageView target = mTargetRef.get();
+            if (target != null) {
+                target.post(() -> {
+                    mImageReadyListener.onImageException(response, mTargetRef.get());
+                });
+            }
+        }
+    }
+
+    /**
+     * Called once a download joined by a task completes.
+     */
+    private interface DownloadFollower {
+
+        /**
+         * On download completed.
+         *
+         * @param ex the exception the download failed with, or null
+         */
+        void onDownloadCompleted(Exception ex);
+    }
+
+    /**
+     * A download shared by the tasks loading the same thumbnail. The first task makes the call, the others are
+     * registered as followers and called once it completes, so that none of them holds a worker meanwhile.
+     */
+    private static class PendingDownload {
+
+        private final ArrayList<DownloadFollower> mFollowers = new ArrayList<DownloadFollower>();
+
+        synchronized void addFollower(DownloadFollower follower) {
+            mFollowers.add(follower);
+        }
+
+        void complete(Exception ex) {
+            ArrayList<DownloadFollower> followers;
+            synchronized (this) {
+                followers = new ArrayList<DownloadFollower>(mFollowers);
+            }
+            for (DownloadFollower follower : followers) {
+                follower.onDownloadCompleted(ex);
+            }
+        }
     }
 
 
@@ -204,5 +526,67 @@ public class LoaderDrawable extends BitmapDrawable {
          */
         @UiThread
         void onImageException(BoxResponse response, ImageView view);
+
+        /**
+         * Gets the config thumbnails are decoded with. RGB_565 halves the memory of opaque thumbnails.
+         *
+         * @return the bitmap config
+         */
+        default Bitmap.Config getPreferredBitmapConfig() {
+            return Bitmap.Config.ARGB_8888;
+        }
+
+        /**
+         * Called on the worker thread once an image has been decoded, to bring it to the size it is shown at, so that
+         * the ui thread only receives final bitmaps.
+         *
+         * @param request      the request
+         * @param bitmap       the decoded image, subsampled to no less than the target size
+         * @param targetWidth  the width of the view captured at bind time, or 0 if unknown
+         * @param targetHeight the height of the view captured at bind time, or 0 if unknown
+         * @return the bitmap to deliver
+         */
+        @WorkerThread
+        default Bitmap resizeBitmap(BoxRequest request, Bitmap bitmap, int targetWidth, int targetHeight) {
+            return bitmap;
+        }
+
+        /**
+         * Runs the delivery of a decoded image on the ui thread. Listeners may queue it with the deliveries of
+         * other images rather than posting each one to the view.
+         *
+         * @param view   the view the image is for
+         * @param action the delivery
+         */
+        default void runOnUiThread(ImageView view, Runnable action) {
+            view.post(action);
+        }
+
+        /**
+         * Called on the worker thread once an image file has been downloaded.
+         *
+         * @param imageFile the image file
+         */
+        @WorkerThread
+        default void onImageFileWritten(File imageFile) {
+        }
+
+        /**
+         * Called on the worker thread when an image is loaded from a previously downloaded file.
+         *
+         * @param imageFile the image file
+         */
+        @WorkerThread
+        default void onImageFileRead(File imageFile) {
+        }
+
+        /**
+         * Gets the pool thumbnails are decoded into.
+         *
+         * @return the bitmap pool, or null to always allocate new bitmaps
+         */
+        default BitmapPool getBitmapPool() {
+            return null;
+        }
     }
 }
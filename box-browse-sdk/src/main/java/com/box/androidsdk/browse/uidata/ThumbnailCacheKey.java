@@ -0,0 +1,111 @@
+package com.box.androidsdk.browse.uidata;
+
+import androidx.annotation.UiThread;
+
+/**
+ * Key of a thumbnail in the memory cache: the file id and sha1 identify the content, the size class tells apart the
+ * thumbnail and the representations of different sizes of the same content. The hash is computed once, and a key used
+ * for lookups can be reused so that looking up a cached thumbnail does not allocate.
+ */
+public final class ThumbnailCacheKey {
+
+    /**
+     * Size class of the default thumbnail returned by {@link com.box.androidsdk.browse.service.BrowseController#getThumbnailRequest(String, java.io.File)}.
+     */
+    public static final int SIZE_CLASS_THUMBNAIL = 0;
+
+    private String mFileId;
+    private String mSha1;
+    private int mSizeClass;
+    private int mHash;
+    private final String mFileName;
+
+    /**
+     * Instantiates a new Thumbnail cache key.
+     *
+     * @param fileId    the file id
+     * @param sha1      the sha1 of the file
+     * @param sizeClass the size class
+     * @param fileName  the name of the file the thumbnail is cached in on disk
+     */
+    public ThumbnailCacheKey(String fileId, String sha1, int sizeClass, String fileName) {
+        mFileName = fileName;
+        set(fileId, sha1, sizeClass);
+    }
+
+    /**
+     * Instantiates a key to be reused for lookups.
+     */
+    ThumbnailCacheKey() {
+        mFileName = null;
+    }
+
+    /**
+     * Reinitializes a lookup key.
+     *
+     * @param fileId    the file id
+     * @param sha1      the sha1 of the file
+     * @param sizeClass the size class
+     * @return this key
+     */
+    @UiThread
+    ThumbnailCacheKey set(String fileId, String sha1, int sizeClass) {
+        mFileId = fileId;
+        mSha1 = sha1;
+        mSizeClass = sizeClass;
+        int hash = fileId != null ? fileId.hashCode() : 0;
+        hash = 31 * hash + (sha1 != null ? sha1.hashCode() : 0);
+        mHash = 31 * hash + sizeClass;
+        return this;
+    }
+
+    /**
+     * Gets the name of the file the thumbnail is cached in on disk.
+     *
+     * @return the file name, or null for lookup keys
+     */
+    public String getFileName() {
+        return mFileName;
+    }
+
+    /**
+     * Gets the size class of a representation from its dimensions, e.g. "320x320", without allocating.
+     *
+     * @param dimension the dimensions of the representation
+     * @return the size class
+     */
+    public static int getSizeClass(String dimension) {
+        int width = 0;
+        if (dimension != null) {
+            for (int i = 0; i < dimension.length() && Character.isDigit(dimension.charAt(i)); i++) {
+                width = width * 10 + (dimension.charAt(i) - '0');
+            }
+        }
+        return width;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ThumbnailCacheKey)) {
+            return false;
+        }
+        ThumbnailCacheKey other = (ThumbnailCacheKey) o;
+        return mHash == other.mHash
+                && mSizeClass == other.mSizeClass
+                && (mFileId != null ? mFileId.equals(other.mFileId) : other.mFileId == null)
+                && (mSha1 != null ? mSha1.equals(other.mSha1) : other.mSha1 == null);
+    }
+
+    @Override
+    public int hashCode() {
+        return mHash;
+    }
+
+    @Override
+    public String toString() {
+        return mFileId + "_" + mSha1 + "_" + mSizeClass;
+    }
+}
@@ -0,0 +1,98 @@
+package com.box.androidsdk.browse.uidata;
+
+import android.graphics.Bitmap;
+import android.view.ViewConfiguration;
+import android.widget.ImageView;
+
+import androidx.annotation.UiThread;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Holds back the thumbnails completed while a RecyclerView scrolls, and hands them to the
+ * {@link ThumbnailDeliveryQueue} in a single pass once the list settles. A few thumbnails are still handed over per
+ * frame while the list scrolls slowly, where setting them does not cost the frame.
+ *
+ * One coordinator is registered per RecyclerView, as a single scroll listener, by {@link ThumbnailManager}.
+ */
+class ThumbnailDeliveryCoordinator extends RecyclerView.OnScrollListener {
+
+    // Thumbnails handed over per scrolled frame while the list moves slowly
+    private static final int MAX_DELIVERIES_PER_SCROLL_FRAME = 2;
+
+    private final ThumbnailManager mThumbnailManager;
+    private final WeakReference<RecyclerView> mRecyclerViewRef;
+    private final int mSlowScrollDistance;
+
+    // Weak keys, so that views dropped by the RecyclerView are not kept alive until the list settles
+    private final WeakHashMap<ImageView, Bitmap> mPendingDeliveries = new WeakHashMap<ImageView, Bitmap>();
+
+    /**
+     * Instantiates a new Thumbnail delivery coordinator and registers it with the RecyclerView.
+     *
+     * @param thumbnailManager the thumbnail manager that shows the thumbnails
+     * @param recyclerView     the RecyclerView whose scrolling is followed
+     */
+    ThumbnailDeliveryCoordinator(ThumbnailManager thumbnailManager, RecyclerView recyclerView) {
+        mThumbnailManager = thumbnailManager;
+        mRecyclerViewRef = new WeakReference<RecyclerView>(recyclerView);
+        mSlowScrollDistance = ViewConfiguration.get(recyclerView.getContext()).getScaledTouchSlop();
+        recyclerView.addOnScrollListener(this);
+    }
+
+    /**
+     * Queues a thumbnail until the list settles. A thumbnail queued earlier for the same view is replaced.
+     *
+     * @param imageView the image view
+     * @param bitmap    the thumbnail
+     */
+    @UiThread
+    void enqueue(ImageView imageView, Bitmap bitmap) {
+        mPendingDeliveries.put(imageView, bitmap);
+        RecyclerView recyclerView = mRecyclerViewRef.get();
+        if (recyclerView == null || recyclerView.getScrollState() == RecyclerView.SCROLL_STATE_IDLE) {
+            deliver(Integer.MAX_VALUE);
+        }
+    }
+
+    /**
+     * Drops the thumbnail queued for a view, e.g. because the view was rebound to another item.
+     *
+     * @param imageView the image view
+     */
+    @UiThread
+    void cancel(ImageView imageView) {
+        mPendingDeliveries.remove(imageView);
+    }
+
+    @Override
+    public void onScrollStateChanged(RecyclerView recyclerView, int newState) {
+        if (newState == RecyclerView.SCROLL_STATE_IDLE && !mPendingDeliveries.isEmpty()) {
+            deliver(Integer.MAX_VALUE);
+        }
+    }
+
+    @Override
+    public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+        if (!mPendingDeliveries.isEmpty() && Math.abs(dy) + Math.abs(dx) <= mSlowScrollDistance) {
+            deliver(MAX_DELIVERIES_PER_SCROLL_FRAME);
+        }
+    }
+
+    private void deliver(int maxDeliveries) {
+        Iterator<Map.Entry<ImageView, Bitmap>> iterator = mPendingDeliveries.entrySet().iterator();
+        int delivered = 0;
+        while (delivered < maxDeliveries && iterator.hasNext()) {
+            Map.Entry<ImageView, Bitmap> delivery = iterator.next();
+            iterator.remove();
+            if (delivery.getKey() != null && !delivery.getValue().isRecycled()) {
+                mThumbnailManager.queueDelivery(delivery.getKey(), delivery.getValue());
+                delivered++;
+            }
+        }
+    }
+}
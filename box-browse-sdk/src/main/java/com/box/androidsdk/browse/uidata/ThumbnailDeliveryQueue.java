@@ -0,0 +1,273 @@
+package com.box.androidsdk.browse.uidata;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+import androidx.annotation.UiThread;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies completed thumbnails on the ui thread from a {@link Choreographer} frame callback, running queued
+ * deliveries only until the frame budget is spent and carrying the rest over to the next frame. A burst of completed
+ * thumbnails is then spread over a few frames instead of flooding the main looper with one message each.
+ *
+ * Deliveries may be queued from any thread. The time deliveries wait in the queue and the work done per frame are
+ * collected in {@link Metrics}.
+ */
+public class ThumbnailDeliveryQueue implements Choreographer.FrameCallback {
+
+    /**
+     * Default time spent delivering thumbnails per frame, a quarter of a 60Hz frame.
+     */
+    public static final long DEFAULT_FRAME_BUDGET_MILLIS = 4;
+
+    private final long mFrameBudgetNanos;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final ArrayDeque<Delivery> mDeliveries = new ArrayDeque<Delivery>();
+    private boolean mIsFrameScheduled;
+
+    // Metrics, guarded by this
+    private long mDeliveryCount;
+    private long mTotalLatencyNanos;
+    private long mMaxLatencyNanos;
+    private long mFrameCount;
+    private long mCarriedOverFrameCount;
+    private long mTotalFrameWorkNanos;
+    private long mMaxFrameWorkNanos;
+
+    private final Runnable mScheduleFrame = new Runnable() {
+        @Override
+        public void run() {
+            Choreographer.getInstance().postFrameCallback(ThumbnailDeliveryQueue.this);
+        }
+    };
+
+    /**
+     * Instantiates a new Thumbnail delivery queue with the default frame budget.
+     */
+    public ThumbnailDeliveryQueue() {
+        this(DEFAULT_FRAME_BUDGET_MILLIS);
+    }
+
+    /**
+     * Instantiates a new Thumbnail delivery queue.
+     *
+     * @param frameBudgetMillis the time deliveries may take per frame. At least one delivery runs per frame.
+     */
+    public ThumbnailDeliveryQueue(long frameBudgetMillis) {
+        mFrameBudgetNanos = TimeUnit.MILLISECONDS.toNanos(frameBudgetMillis);
+    }
+
+    /**
+     * Queues a delivery to run on the ui thread in one of the next frames.
+     *
+     * @param target   the view the delivery is for, used to cancel it
+     * @param delivery the delivery
+     */
+    public void post(Object target, Runnable delivery) {
+        synchronized (this) {
+            mDeliveries.add(new Delivery(target, delivery, System.nanoTime()));
+            if (mIsFrameScheduled) {
+                return;
+            }
+            mIsFrameScheduled = true;
+        }
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            mScheduleFrame.run();
+        } else {
+            mHandler.post(mScheduleFrame);
+        }
+    }
+
+    /**
+     * Drops the queued deliveries for a view, e.g. because it was rebound to another item.
+     *
+     * @param target the view
+     */
+    public synchronized void cancel(Object target) {
+        Iterator<Delivery> iterator = mDeliveries.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().mTarget == target) {
+                iterator.remove();
+            }
+        }
+    }
+
+    @Override
+    @UiThread
+    public void doFrame(long frameTimeNanos) {
+        long start = System.nanoTime();
+        long now = start;
+        int delivered = 0;
+        Delivery delivery;
+        while (now - start < mFrameBudgetNanos && (delivery = poll()) != null) {
+            delivery.mAction.run();
+            delivered++;
+            recordLatency(now - delivery.mEnqueueTime);
+            now = System.nanoTime();
+        }
+        boolean hasRemaining;
+        synchronized (this) {
+            hasRemaining = !mDeliveries.isEmpty();
+            mIsFrameScheduled = hasRemaining;
+            if (delivered > 0) {
+                mFrameCount++;
+                mTotalFrameWorkNanos += now - start;
+                mMaxFrameWorkNanos = Math.max(mMaxFrameWorkNanos, now - start);
+                if (hasRemaining) {
+                    mCarriedOverFrameCount++;
+                }
+            }
+        }
+        if (hasRemaining) {
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    /**
+     * Gets a snapshot of the delivery metrics collected since creation or the last {@link #resetMetrics()}.
+     *
+     * @return the metrics
+     */
+    public synchronized Metrics getMetrics() {
+        return new Metrics(mDeliveryCount, mTotalLatencyNanos, mMaxLatencyNanos, mFrameCount, mCarriedOverFrameCount,
+                mTotalFrameWorkNanos, mMaxFrameWorkNanos);
+    }
+
+    /**
+     * Resets the delivery metrics.
+     */
+    public synchronized void resetMetrics() {
+        mDeliveryCount = 0;
+        mTotalLatencyNanos = 0;
+        mMaxLatencyNanos = 0;
+        mFrameCount = 0;
+        mCarriedOverFrameCount = 0;
+        mTotalFrameWorkNanos = 0;
+        mMaxFrameWorkNanos = 0;
+    }
+
+    private synchronized Delivery poll() {
+        return mDeliveries.poll();
+    }
+
+    private synchronized void recordLatency(long latencyNanos) {
+        mDeliveryCount++;
+        mTotalLatencyNanos += latencyNanos;
+        mMaxLatencyNanos = Math.max(mMaxLatencyNanos, latencyNanos);
+    }
+
+    private static class Delivery {
+
+        private final Object mTarget;
+        private final Runnable mAction;
+        private final long mEnqueueTime;
+
+        Delivery(Object target, Runnable action, long enqueueTime) {
+            mTarget = target;
+            mAction = action;
+            mEnqueueTime = enqueueTime;
+        }
+    }
+
+    /**
+     * Snapshot of the metrics of a {@link ThumbnailDeliveryQueue}. Latency is the time from queueing a delivery until
+     * it starts running; frame work is the time spent delivering in a frame that delivered anything.
+     */
+    public static class Metrics {
+
+        private final long mDeliveryCount;
+        private final long mTotalLatencyNanos;
+        private final long mMaxLatencyNanos;
+        private final long mFrameCount;
+        private final long mCarriedOverFrameCount;
+        private final long mTotalFrameWorkNanos;
+        private final long mMaxFrameWorkNanos;
+
+        Metrics(long deliveryCount, long totalLatencyNanos, long maxLatencyNanos, long frameCount,
+                long carriedOverFrameCount, long totalFrameWorkNanos, long maxFrameWorkNanos) {
+            mDeliveryCount = deliveryCount;
+            mTotalLatencyNanos = totalLatencyNanos;
+            mMaxLatencyNanos = maxLatencyNanos;
+            mFrameCount = frameCount;
+            mCarriedOverFrameCount = carriedOverFrameCount;
+            mTotalFrameWorkNanos = totalFrameWorkNanos;
+            mMaxFrameWorkNanos = maxFrameWorkNanos;
+        }
+
+        /**
+         * Gets the number of deliveries that ran.
+         *
+         * @return the delivery count
+         */
+        public long getDeliveryCount() {
+            return mDeliveryCount;
+        }
+
+        /**
+         * Gets the average time deliveries waited in the queue.
+         *
+         * @return the average latency in milliseconds
+         */
+        public double getAverageLatencyMillis() {
+            return mDeliveryCount > 0 ? mTotalLatencyNanos / (double) mDeliveryCount / TimeUnit.MILLISECONDS.toNanos(1) : 0;
+        }
+
+        /**
+         * Gets the longest time a delivery waited in the queue.
+         *
+         * @return the maximum latency in milliseconds
+         */
+        public double getMaxLatencyMillis() {
+            return mMaxLatencyNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+
+        /**
+         * Gets the number of frames that ran deliveries.
+         *
+         * @return the frame count
+         */
+        public long getFrameCount() {
+            return mFrameCount;
+        }
+
+        /**
+         * Gets the number of frames that ran out of budget and carried deliveries over to the next frame.
+         *
+         * @return the carried over frame count
+         */
+        public long getCarriedOverFrameCount() {
+            return mCarriedOverFrameCount;
+        }
+
+        /**
+         * Gets the average time spent delivering per frame.
+         *
+         * @return the average frame work in milliseconds
+         */
+        public double getAverageFrameWorkMillis() {
+            return mFrameCount > 0 ? mTotalFrameWorkNanos / (double) mFrameCount / TimeUnit.MILLISECONDS.toNanos(1) : 0;
+        }
+
+        /**
+         * Gets the longest time spent delivering in a frame.
+         *
+         * @return the maximum frame work in milliseconds
+         */
+        public double getMaxFrameWorkMillis() {
+            return mMaxFrameWorkNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ENGLISH, "deliveries=%d avgLatency=%.2fms maxLatency=%.2fms frames=%d carriedOver=%d avgFrameWork=%.2fms maxFrameWork=%.2fms",
+                    getDeliveryCount(), getAverageLatencyMillis(), getMaxLatencyMillis(), getFrameCount(),
+                    getCarriedOverFrameCount(), getAverageFrameWorkMillis(), getMaxFrameWorkMillis());
+        }
+    }
+}
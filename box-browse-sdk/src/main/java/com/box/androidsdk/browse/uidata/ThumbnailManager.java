@@ -2,16 +2,20 @@ package com.box.androidsdk.browse.uidata;
 
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Matrix;
+import android.graphics.Paint;
 import android.media.ThumbnailUtils;
-import android.os.Handler;
-import android.os.Looper;
 
 import androidx.annotation.UiThread;
 import androidx.recyclerview.widget.RecyclerView;
+import android.view.View;
 import android.view.ViewParent;
 import android.widget.ImageView;
 
 import com.box.androidsdk.browse.R;
+import com.box.androidsdk.browse.service.BoxPriorityExecutor;
 import com.box.androidsdk.browse.service.BrowseController;
 import com.box.androidsdk.content.BoxFutureTask;
 import com.box.androidsdk.content.models.BoxBookmark;
@@ -23,16 +27,16 @@ import com.box.androidsdk.content.models.BoxRepresentation;
 import com.box.androidsdk.content.requests.BoxRequest;
 import com.box.androidsdk.content.requests.BoxRequestsFile;
 import com.box.androidsdk.content.requests.BoxResponse;
-import com.box.androidsdk.content.utils.BoxLogUtils;
 import com.box.androidsdk.content.utils.SdkUtils;
 
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.IOException;
-import java.lang.ref.WeakReference;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import java.util.WeakHashMap;
 
 
@@ -47,14 +51,51 @@ public class ThumbnailManager implements LoaderDrawable.ImageReadyListener{
     /** Controller used for all requests */
     private final BrowseController mController;
 
+    /** Directory thumbnails are cached in, resolved once since the controller checks the disk to resolve it */
+    private final File mThumbnailDirectory;
+
     public static final String TYPE_MEDIA = "MEDIA";
     public static final String TYPE_REPRESENTATION = "REPS";
 
+    /**
+     * Representation formats thumbnails can be shown from, in order of preference.
+     */
+    public static final String[] REPRESENTATION_FORMATS = {BoxRepresentation.TYPE_JPG, BoxRepresentation.TYPE_PNG};
+
+    /** Size representations are picked for when the view has no size yet, that of the default thumbnail. */
+    private static final int DEFAULT_REPRESENTATION_SIZE_DP = 160;
+
+    /** Size in pixels of the default thumbnail requested by the controller. */
+    private static final int THUMBNAIL_SIZE = 160;
+
     /**
      * Maps the target image view to the thumbnail task. Provides ability to cancel tasks
      */
     WeakHashMap<Object, BoxFutureTask> mTargetToTask = new WeakHashMap<Object, BoxFutureTask>();
 
+    /**
+     * Memory cache keys of the thumbnails being downloaded, by request
+     */
+    private final Map<BoxRequest, ThumbnailCacheKey> mRequestToCacheKey = Collections.synchronizedMap(new WeakHashMap<BoxRequest, ThumbnailCacheKey>());
+
+    /**
+     * Shows completed thumbnails on the ui thread, a frame budget at a time
+     */
+    private final ThumbnailDeliveryQueue mDeliveryQueue = new ThumbnailDeliveryQueue();
+
+    /**
+     * Coordinates the thumbnails completed while a list scrolls, one per RecyclerView
+     */
+    private final WeakHashMap<RecyclerView, ThumbnailDeliveryCoordinator> mDeliveryCoordinators = new WeakHashMap<RecyclerView, ThumbnailDeliveryCoordinator>();
+
+    /**
+     * Representation requests whose images are shown as downloaded rather than cropped to their view
+     */
+    private final Set<BoxRequest> mUncroppedRequests = Collections.newSetFromMap(Collections.synchronizedMap(new WeakHashMap<BoxRequest, Boolean>()));
+
+    // Reused for every lookup made while binding, so that hitting the memory cache does not allocate
+    private final ThumbnailCacheKey mLookupKey = new ThumbnailCacheKey();
+
     protected final static HashMap<String, Integer> DEFAULT_ICON_RESORCE_MAP = new HashMap<String, Integer>();
 
     public static final String[] DOCUMENTS_EXTENSIONS_ARRAY = {"csv", "doc", "docx", "gdoc", "gsheet", "htm", "html", "msg", "odp", "odt", "ods", "pdf",
@@ -140,8 +181,9 @@ public class ThumbnailManager implements LoaderDrawable.ImageReadyListener{
         DEFAULT_ICON_RESORCE_MAP.put("ai", R.drawable.ic_box_browsesdk_illustrator);
     }
 
-    // Main thread looper for posting runnable to UI
-    private Handler mHandler = new Handler(Looper.getMainLooper());
+    private Bitmap.Config mPreferredBitmapConfig = Bitmap.Config.ARGB_8888;
+
+    private boolean mIsProgressiveLoadingEnabled = true;
 
     /**
      * Constructor.
@@ -153,8 +195,9 @@ public class ThumbnailManager implements LoaderDrawable.ImageReadyListener{
         mController = controller;
 
         // Ensure that parent cache directory is present
-        if (!mController.getThumbnailCacheDir().exists()) {
-            mController.getThumbnailCacheDir().mkdirs();
+        mThumbnailDirectory = mController.getThumbnailCacheDir();
+        if (!mThumbnailDirectory.exists()) {
+            mThumbnailDirectory.mkdirs();
         }
 
     }
@@ -211,21 +254,8 @@ public class ThumbnailManager implements LoaderDrawable.ImageReadyListener{
      * @return a File object where the thumbnail is saved to or should be saved to.
      */
     public File getThumbnailForBoxFile(final BoxFile boxFile) {
-        File file = new File(getThumbnailDirectory(), getCacheName(boxFile));
-        try{
-            file.createNewFile();
-
-        } catch (IOException e){
-            // Ignore errors in creating the file to store thumbnails to.
-            mController.Log("getThumbnailForBoxFile ",  "file.getAbsolutePath()  " + file.getAbsolutePath() + " isFile " + file.isFile(), null);
-            mController.Log("getThumbnailForBoxFile ", "file.getParentFile().exists() "
-                    + Boolean.toString(file.getParentFile().exists()) + " isDirectory " + file.getParentFile().isDirectory(), null);
-            mController.Log("getThumbnailForBoxFile ", "file.getParentFile().getParentFile.exists() " + Boolean.toString(
-                    file.getParentFile().getParentFile().exists()) + " isDirectory " + file.getParentFile().getParentFile().isDirectory(), null);
-            mController.Log("getThumbnailForBoxFile" , " IOException " , e);
-
-        }
-        return file;
+        // Only resolves the location, the file is created by the download so that binding does no disk io.
+        return new File(getThumbnailDirectory(), getCacheName(boxFile));
     }
 
     /**
@@ -258,13 +288,17 @@ public class ThumbnailManager implements LoaderDrawable.ImageReadyListener{
      * @return the cacheDirectory of this thumbnail manager.
      */
     public File getThumbnailDirectory() {
-        return mController.getThumbnailCacheDir();
+        return mThumbnailDirectory;
     }
 
     /**
      * Convenience method to delete all files in the provided cache directory.
      */
     public void deleteFilesInCacheDirectory() {
+        if (mController.getThumbnailDiskCache() != null) {
+            mController.getThumbnailDiskCache().clear();
+            return;
+        }
         File[] files = mController.getThumbnailCacheDir().listFiles();
         if (files != null) {
             for (int index = 0; index < files.length; index++) {
@@ -286,16 +320,34 @@ public class ThumbnailManager implements LoaderDrawable.ImageReadyListener{
             return false;
         }
 
-        int index = item.getName().lastIndexOf(".");
+        // Matched in place, since this is checked for every bind
+        String name = item.getName();
+        int index = name.lastIndexOf(".");
         if (index > 0) {
-            String extension = item.getName().substring(index + 1).toLowerCase();
-            return IMAGE_EXTENSIONS.contains(extension)
-                    || VIDEO_EXTENSIONS.contains(extension);
+            return hasExtension(name, index + 1, IMAGE_EXTENSIONS_ARRAY)
+                    || hasExtension(name, index + 1, VIDEO_EXTENSIONS_ARRAY);
+        }
+        return false;
+    }
+
+    private static boolean hasExtension(String name, int extensionStart, String[] extensions) {
+        int length = name.length() - extensionStart;
+        for (String extension : extensions) {
+            if (extension.length() == length && name.regionMatches(true, extensionStart, extension, 0, length)) {
+                return true;
+            }
         }
         return false;
     }
 
 
+    private static boolean canLoadThumbnail(BoxItem item) {
+        return item instanceof BoxFile
+                && item.getPermissions() != null
+                && item.getPermissions().contains(BoxItem.Permission.CAN_PREVIEW)
+                && isThumbnailAvailable(item);
+    }
+
     public static boolean isVideo(BoxItem item){
         if (item == null || SdkUtils.isBlank(item.getName())) {
             return false;
@@ -317,23 +369,19 @@ public class ThumbnailManager implements LoaderDrawable.ImageReadyListener{
     public void loadThumbnail(final BoxItem item, final ImageView targetImage) {
         boolean isMediaType = TYPE_MEDIA.equals(ViewData.getImageType(targetImage));
         targetImage.setScaleType(ImageView.ScaleType.FIT_CENTER);
-        if (item instanceof BoxFile
-                && item.getPermissions() != null
-                && item.getPermissions().contains(BoxItem.Permission.CAN_PREVIEW)
-                && isThumbnailAvailable(item)) {
-
-            // Cancel pending task upon recycle.
-            BoxFutureTask task = mTargetToTask.remove(targetImage);
-            if (task != null) {
-                task.cancel(false);
-            }
-
-            File thumbnailFile = getThumbnailForBoxFile((BoxFile) item);
-            if (mController.getThumbnailCache() != null && mController.getThumbnailCache().get(thumbnailFile) != null){
-                Bitmap bm = mController.getThumbnailCache().get(thumbnailFile);
-                targetImage.setImageBitmap(mController.getThumbnailCache().get(thumbnailFile));
+        // Cancel pending task upon recycle, also when the view is rebound to an item without a thumbnail.
+        cancelPendingTask(targetImage);
+        if (canLoadThumbnail(item)) {
+
+            BoxFile file = (BoxFile) item;
+            Bitmap bm = mController.getThumbnailMemoryCache() != null ?
+                    mController.getThumbnailMemoryCache().get(mLookupKey.set(file.getId(), file.getSha1(), ThumbnailCacheKey.SIZE_CLASS_THUMBNAIL)) :
+                    null;
+            if (bm != null){
+                setImageBitmap(targetImage, bm);
                 return;
             }
+            File thumbnailFile = getThumbnailForBoxFile(file);
 
             Bitmap placeHolderBitmap = null;
             if (! isMediaType) {
@@ -354,8 +402,9 @@ public class ThumbnailManager implements LoaderDrawable.ImageReadyListener{
             }
 
             // Set the drawable to our loader drawable, which will show a placeholder before loading the thumbnail into the view
-            BoxRequestsFile.DownloadThumbnail request = mController.getThumbnailRequest(item.getId(), thumbnailFile);
-            LoaderDrawable loaderDrawable = LoaderDrawable.create(request, item, targetImage, placeHolderBitmap, this);
+            BoxRequestsFile.DownloadThumbnail request = mController.getThumbnailRequest(item.getId(), LoaderDrawable.ThumbnailTask.getTempFile(thumbnailFile));
+            mRequestToCacheKey.put(request, new ThumbnailCacheKey(file.getId(), file.getSha1(), ThumbnailCacheKey.SIZE_CLASS_THUMBNAIL, thumbnailFile.getName()));
+            LoaderDrawable loaderDrawable = LoaderDrawable.create(request, thumbnailFile, item, targetImage, placeHolderBitmap, this);
             targetImage.setImageDrawable(loaderDrawable);
             BoxFutureTask thumbnailTask = loaderDrawable.getTask();
             if (thumbnailTask != null) {
@@ -369,16 +418,72 @@ public class ThumbnailManager implements LoaderDrawable.ImageReadyListener{
         }
     }
 
+    /**
+     * Downloads the thumbnail of an item that is about to be scrolled into view, at
+     * {@link BrowseController.Priority#PREFETCH} priority so that it never holds up the thumbnails of visible rows.
+     * The thumbnail is only written to disk; it is decoded once a view is bound to the item.
+     *
+     * @param item the item
+     * @return the task downloading the thumbnail, to be given to {@link #cancelPrefetch(BoxFutureTask)}, or null if
+     * the item has no thumbnail or it is already in memory
+     */
+    @UiThread
+    public BoxFutureTask prefetchThumbnail(final BoxItem item) {
+        if (!canLoadThumbnail(item)) {
+            return null;
+        }
+        BoxFile file = (BoxFile) item;
+        if (mController.getThumbnailMemoryCache() != null
+                && mController.getThumbnailMemoryCache().get(mLookupKey.set(file.getId(), file.getSha1(), ThumbnailCacheKey.SIZE_CLASS_THUMBNAIL)) != null) {
+            return null;
+        }
+        File thumbnailFile = getThumbnailForBoxFile(file);
+        BoxRequestsFile.DownloadThumbnail request = mController.getThumbnailRequest(item.getId(), LoaderDrawable.ThumbnailTask.getTempFile(thumbnailFile));
+        BoxFutureTask task = LoaderDrawable.ThumbnailTask.createPrefetch(request, thumbnailFile, item, this);
+        if (mController.getThumbnailExecutor() instanceof BoxPriorityExecutor) {
+            ((BoxPriorityExecutor) mController.getThumbnailExecutor()).execute(task, BrowseController.Priority.PREFETCH);
+        } else {
+            mController.getThumbnailExecutor().execute(task);
+        }
+        return task;
+    }
+
+    /**
+     * Cancels a task returned by {@link #prefetchThumbnail(BoxItem)}, dropping it from the thumbnail executor if it
+     * has not started yet.
+     *
+     * @param task the prefetch task
+     */
+    public void cancelPrefetch(final BoxFutureTask task) {
+        task.cancel(false);
+        mController.getThumbnailExecutor().remove(task);
+    }
+
+    /**
+     * Loads the thumbnail of an item into a grid tile. Files listed with their representations are shown from the
+     * smallest representation that covers the tile, see {@link #selectRepresentation(BoxFile, int, int)}, the others
+     * from the default thumbnail.
+     *
+     * @param item        the item
+     * @param targetImage the target image
+     */
     public void loadMediaThumbnail(final BoxItem item, final ImageView targetImage) {
         if (targetImage.getTag() == null){
             ViewData data = new ViewData(TYPE_MEDIA, null);
             targetImage.setTag(data);
         }
+        if (canLoadThumbnail(item) && ((BoxFile) item).getRepresentations() != null) {
+            cancelPendingTask(targetImage);
+            if (loadRepresentation((BoxFile) item, targetImage, true)) {
+                return;
+            }
+        }
         loadThumbnail(item, targetImage);
     }
 
     /**
-     * Load a file image representation into an ImageView.
+     * Load a file image representation into an ImageView. The smallest representation that covers the view is
+     * picked, see {@link #selectRepresentation(BoxFile, int, int)}.
      * @param file the file to get the image representation
      * @param targetImage the ImageView where it should draw
      * @param loadListener the listener to get notified when the image finishes loading or fails
@@ -389,46 +494,212 @@ public class ThumbnailManager implements LoaderDrawable.ImageReadyListener{
             ViewData data = new ViewData(TYPE_REPRESENTATION, loadListener);
             targetImage.setTag(data);
         }
+        cancelPendingTask(targetImage);
+        return loadRepresentation(file, targetImage, false);
+    }
+
+    private boolean loadRepresentation(final BoxFile file, final ImageView targetImage, boolean isCropped) {
+        int targetWidth = LoaderDrawable.ThumbnailTask.getTargetWidth(targetImage);
+        int targetHeight = LoaderDrawable.ThumbnailTask.getTargetHeight(targetImage);
+        if (targetWidth <= 0 || targetHeight <= 0) {
+            // Not laid out yet, assume the size of the default thumbnail rather than picking the smallest variant
+            targetWidth = targetHeight = (int) (DEFAULT_REPRESENTATION_SIZE_DP * targetImage.getResources().getDisplayMetrics().density);
+        }
+        BoxRepresentation rep = selectRepresentation(file, targetWidth, targetHeight);
+        if (rep == null) {
+            return false;
+        }
+        // Variants of different dimensions are cached side by side, in memory and on disk
+        int sizeClass = ThumbnailCacheKey.getSizeClass(rep.getProperties().getDimension());
+        Bitmap b = mController.getThumbnailMemoryCache() != null ?
+                mController.getThumbnailMemoryCache().get(mLookupKey.set(file.getId(), file.getSha1(), sizeClass)) :
+                null;
+        if(b != null) {
+            // Shown right away rather than held back while the list scrolls, the view must not keep showing the
+            // thumbnail of the item it was bound to before
+            deliverThumbnail(targetImage, b);
+            return true;
+        }
+        File f = new File(getThumbnailDirectory(), getRepCacheName(file, rep));
+        BoxRequestsFile.DownloadRepresentation request = mController.getRepresentationThumbnailRequest(file.getId(), rep, LoaderDrawable.ThumbnailTask.getTempFile(f));
+        mRequestToCacheKey.put(request, new ThumbnailCacheKey(file.getId(), file.getSha1(), sizeClass, f.getName()));
+        if (!isCropped) {
+            mUncroppedRequests.add(request);
+        }
+        // In progressive mode a smaller variant already in memory is shown until this one arrives. The loader
+        // drawable only lets the result of its own request replace it, so a swap for a rebound view is dropped.
+        Bitmap lowResolution = mIsProgressiveLoadingEnabled ? getCachedSmallerVariant(file, sizeClass) : null;
+        LoaderDrawable loaderDrawable = LoaderDrawable.create(request, f, file, targetImage, lowResolution, this);
+        targetImage.setImageDrawable(loaderDrawable);
+        if (lowResolution != null && getBitmapPool() != null) {
+            getBitmapPool().setDisplayed(targetImage, lowResolution);
+        }
+        BoxFutureTask thumbnailTask = loaderDrawable.getTask();
+        if (thumbnailTask != null) {
+            mTargetToTask.put(targetImage, thumbnailTask);
+            mController.getThumbnailExecutor().execute(thumbnailTask);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Gets the largest variant of a file smaller than the given size class that is in the memory cache: a smaller
+     * representation, or else the default thumbnail.
+     */
+    private Bitmap getCachedSmallerVariant(final BoxFile file, int sizeClass) {
+        if (mController.getThumbnailMemoryCache() == null) {
+            return null;
+        }
+        Bitmap variant = null;
+        int variantSizeClass = 0;
         BoxIteratorRepresentations reps = file.getRepresentations();
-        if(reps != null) {
-            // Check whether we have some thumbnail representation for this file
-            for(BoxRepresentation rep : reps) {
-                String repType = rep.getRepresentationType();
-                // In order to load thumbnails, we need a JPG or a PNG representation
-                if(BoxRepresentation.TYPE_PNG.equalsIgnoreCase(repType) ||
-                   BoxRepresentation.TYPE_JPG.equalsIgnoreCase(repType)) {
-                    BoxRepresentation.BoxRepContent contentLink = rep.getContent();
-                    if(contentLink != null) {
-                        String url = contentLink.getUrl();
-                        if(url != null) {
-                            File f = new File(mController.getThumbnailCacheDir(), getRepCacheName(file, rep));
-                            Bitmap b = mController.getThumbnailCache().get(f);
-                            if(b != null) {
-                                loadThumbnail(b, targetImage);
-                                return true;
-                            }
-                            try {
-                                f.createNewFile();
-                            } catch (IOException e) {
-                                BoxLogUtils.e(getClass().getSimpleName(), "Could not create rep file:" + f.getName());
-                            }
-                            BoxRequestsFile.DownloadRepresentation request = mController.getRepresentationThumbnailRequest(file.getId(), rep, f);
-                            LoaderDrawable loaderDrawable = LoaderDrawable.create(request, file, targetImage, null, this);
-                            targetImage.setImageDrawable(loaderDrawable);
-                            BoxFutureTask thumbnailTask = loaderDrawable.getTask();
-                            if (thumbnailTask != null) {
-                                mTargetToTask.put(targetImage, thumbnailTask);
-                                mController.getThumbnailExecutor().execute(thumbnailTask);
-                                return true;
-                            }
-                        }
+        if (reps != null) {
+            for (BoxRepresentation rep : reps) {
+                int repSizeClass = rep.getProperties() != null ? ThumbnailCacheKey.getSizeClass(rep.getProperties().getDimension()) : 0;
+                if (repSizeClass > variantSizeClass && repSizeClass < sizeClass) {
+                    Bitmap cached = mController.getThumbnailMemoryCache().get(mLookupKey.set(file.getId(), file.getSha1(), repSizeClass));
+                    if (cached != null) {
+                        variant = cached;
+                        variantSizeClass = repSizeClass;
                     }
                 }
             }
         }
-        return false;
+        if (variant == null && sizeClass > THUMBNAIL_SIZE) {
+            variant = mController.getThumbnailMemoryCache().get(mLookupKey.set(file.getId(), file.getSha1(), ThumbnailCacheKey.SIZE_CLASS_THUMBNAIL));
+        }
+        return variant;
+    }
+
+    /**
+     * Sets whether representations are loaded progressively: a smaller variant of the image that is already in
+     * memory, such as the list thumbnail, is shown until the requested representation has been downloaded.
+     * Enabled by default.
+     *
+     * @param enabled true to show cached smaller variants first
+     */
+    public void setProgressiveLoadingEnabled(boolean enabled) {
+        mIsProgressiveLoadingEnabled = enabled;
+    }
+
+    /**
+     * Whether representations are loaded progressively.
+     *
+     * @return true if cached smaller variants are shown first
+     */
+    public boolean isProgressiveLoadingEnabled() {
+        return mIsProgressiveLoadingEnabled;
+    }
+
+    /**
+     * Picks the representation to show a file at the given size: the smallest one whose dimensions cover the size,
+     * trying {@link #REPRESENTATION_FORMATS} in order, or the largest one if none covers it. Only representations
+     * that can be downloaded are considered.
+     *
+     * @param file         the file
+     * @param targetWidth  the width in pixels the image is shown at, or 0 if unknown
+     * @param targetHeight the height in pixels the image is shown at, or 0 if unknown
+     * @return the representation, or null if the file has no image representation
+     */
+    protected BoxRepresentation selectRepresentation(final BoxFile file, int targetWidth, int targetHeight) {
+        BoxIteratorRepresentations reps = file.getRepresentations();
+        if (reps == null) {
+            return null;
+        }
+        BoxRepresentation largest = null;
+        for (String format : REPRESENTATION_FORMATS) {
+            BoxRepresentation smallestCovering = null;
+            for (BoxRepresentation rep : reps) {
+                if (!format.equalsIgnoreCase(rep.getRepresentationType()) || rep.getContent() == null
+                        || rep.getContent().getUrl() == null || rep.getProperties() == null) {
+                    continue;
+                }
+                String dimension = rep.getProperties().getDimension();
+                int width = ThumbnailCacheKey.getSizeClass(dimension);
+                if (width >= targetWidth && getDimensionHeight(dimension) >= targetHeight) {
+                    if (smallestCovering == null || width < ThumbnailCacheKey.getSizeClass(smallestCovering.getProperties().getDimension())) {
+                        smallestCovering = rep;
+                    }
+                } else if (largest == null || width > ThumbnailCacheKey.getSizeClass(largest.getProperties().getDimension())) {
+                    largest = rep;
+                }
+            }
+            if (smallestCovering != null) {
+                return smallestCovering;
+            }
+        }
+        return largest;
+    }
+
+    private static int getDimensionHeight(String dimension) {
+        int separator = dimension != null ? dimension.indexOf('x') : -1;
+        return separator >= 0 ? ThumbnailCacheKey.getSizeClass(dimension.substring(separator + 1)) : 0;
+    }
+
+    /**
+     * Sets the config thumbnails are decoded with, e.g. {@link Bitmap.Config#RGB_565} to halve their memory when
+     * transparency is not needed. {@link Bitmap.Config#HARDWARE} is not supported, thumbnails are cropped on a
+     * canvas and their bitmaps are pooled, which both need a mutable software bitmap.
+     *
+     * @param config the bitmap config
+     */
+    public void setPreferredBitmapConfig(Bitmap.Config config) {
+        if (config == null || config == Bitmap.Config.HARDWARE) {
+            throw new IllegalArgumentException("Unsupported bitmap config " + config);
+        }
+        mPreferredBitmapConfig = config;
+    }
+
+    @Override
+    public Bitmap.Config getPreferredBitmapConfig() {
+        return mPreferredBitmapConfig;
+    }
+
+    @Override
+    public BitmapPool getBitmapPool() {
+        return mController.getBitmapPool();
+    }
+
+    @Override
+    public void runOnUiThread(ImageView view, Runnable action) {
+        mDeliveryQueue.post(view, action);
+    }
+
+    @Override
+    public void onImageFileWritten(File imageFile) {
+        if (mController.getThumbnailDiskCache() != null) {
+            mController.getThumbnailDiskCache().recordWrite(imageFile);
+        }
     }
 
+    @Override
+    public void onImageFileRead(File imageFile) {
+        if (mController.getThumbnailDiskCache() != null) {
+            mController.getThumbnailDiskCache().recordRead(imageFile);
+        }
+    }
+
+    /**
+     * Cancels the task loading into the given view. A task that is still queued is dropped from the thumbnail
+     * executor, so that stale work does not hold up the rows that are bound now.
+     *
+     * @param targetImage the image view
+     */
+    protected void cancelPendingTask(final ImageView targetImage) {
+        for (ThumbnailDeliveryCoordinator coordinator : mDeliveryCoordinators.values()) {
+            coordinator.cancel(targetImage);
+        }
+        mDeliveryQueue.cancel(targetImage);
+        if (getBitmapPool() != null) {
+            getBitmapPool().clearPending(targetImage);
+        }
+        BoxFutureTask task = mTargetToTask.remove(targetImage);
+        if (task != null) {
+            task.cancel(false);
+            mController.getThumbnailExecutor().remove(task);
+        }
+    }
 
     @Override
     public void onImageReady(final File bitmapSourceFile, final BoxRequest request, final Bitmap bitmap, final ImageView view) {
@@ -436,25 +707,15 @@ public class ThumbnailManager implements LoaderDrawable.ImageReadyListener{
             ViewData.getImageLoadListener(view).onError();
             return;
         }
-        if(TYPE_REPRESENTATION.equals(ViewData.getImageType(view))) {
-            // No resizing for representation images
-            mController.getThumbnailCache().put(bitmapSourceFile, bitmap);
-        } else {
-            if (view.getMeasuredWidth() > 0 && view.getMeasuredHeight() > 0) {
-                Bitmap resizedBitmap = ThumbnailUtils.extractThumbnail(bitmap, view.getMeasuredWidth(), view.getMeasuredHeight());
-                mController.getThumbnailCache().put(bitmapSourceFile, resizedBitmap);
-                if (resizedBitmap != bitmap) {
-                    bitmap.recycle();
-                }
-            } else {
-                postLaterToView(bitmapSourceFile, request, bitmap, view);
-                return;
-
-            }
+        // The bitmap was already resized on the worker thread by resizeBitmap()
+        ThumbnailCacheKey cacheKey = mRequestToCacheKey.get(request);
+        if (cacheKey != null && mController.getThumbnailMemoryCache() != null) {
+            mController.getThumbnailMemoryCache().put(cacheKey, bitmap);
         }
-        Bitmap scaledBitmap = mController.getThumbnailCache().get(bitmapSourceFile);
-        if (scaledBitmap != null && isRequestStillApplicable(request, view)){
-            loadThumbnail(scaledBitmap, view);
+        if (isRequestStillApplicable(request, view)){
+            loadThumbnail(bitmap, view);
+        } else if (getBitmapPool() != null) {
+            getBitmapPool().clearPending(view, bitmap);
         }
     }
 
@@ -465,88 +726,143 @@ public class ThumbnailManager implements LoaderDrawable.ImageReadyListener{
     }
 
     /**
-     * Post later to view.
-     * this is a work around to get view to post this only view is attached. Must be done on ui thread.
+     * Crops thumbnails to the size of their view. Representations loaded through
+     * {@link #loadThumbnailRepresentation(BoxFile, ImageView, ImageLoadListener)} are not resized.
      *
-     * @param bitmapSourceFile the bitmap source file
-     * @param request          the request
-     * @param bitmap           the bitmap
-     * @param view             the view
+     * @param request      the request
+     * @param bitmap       the decoded image
+     * @param targetWidth  the width of the view, or 0 if unknown
+     * @param targetHeight the height of the view, or 0 if unknown
+     * @return the bitmap to deliver
      */
-    protected void postLaterToView(final File bitmapSourceFile, final BoxRequest request, final Bitmap bitmap, final ImageView view){
-        mHandler.post(new Runnable() {
-            @Override
-            public void run() {
-                view.post(new Runnable() {
-                    @Override
-                    public void run() {
-                        mController.getThumbnailExecutor().execute(new Runnable(){
-                            @Override
-                            public void run() {
-                                onImageReady(bitmapSourceFile, request, bitmap, view);
-                            }
-                        });
-                    }
-                });
+    @Override
+    public Bitmap resizeBitmap(BoxRequest request, Bitmap bitmap, int targetWidth, int targetHeight) {
+        if (mUncroppedRequests.contains(request) || targetWidth <= 0 || targetHeight <= 0
+                || (bitmap.getWidth() == targetWidth && bitmap.getHeight() == targetHeight)) {
+            return bitmap;
+        }
+        Bitmap scaledBitmap = centerCrop(bitmap, targetWidth, targetHeight, getBitmapPool());
+        releaseBitmap(bitmap);
+        return scaledBitmap;
+    }
 
+    /**
+     * Scales a bitmap to cover the target size and crops the overflow, as {@link ThumbnailUtils#extractThumbnail(Bitmap, int, int)}
+     * does, but into a mutable bitmap taken from the pool when possible so that the result can be pooled in turn.
+     */
+    private static Bitmap centerCrop(Bitmap source, int width, int height, BitmapPool pool) {
+        Bitmap.Config config = source.getConfig() != null ? source.getConfig() : Bitmap.Config.ARGB_8888;
+        Bitmap target = pool != null ? pool.get(width, height, config) : null;
+        if (target != null) {
+            try {
+                target.reconfigure(width, height, config);
+                target.eraseColor(Color.TRANSPARENT);
+            } catch (IllegalArgumentException e) {
+                target = null;
             }
-        });
+        }
+        if (target == null) {
+            target = Bitmap.createBitmap(width, height, config);
+        }
+        float scale = Math.max(width / (float) source.getWidth(), height / (float) source.getHeight());
+        Matrix matrix = new Matrix();
+        matrix.setScale(scale, scale);
+        matrix.postTranslate((width - source.getWidth() * scale) / 2f, (height - source.getHeight() * scale) / 2f);
+        new Canvas(target).drawBitmap(source, matrix, new Paint(Paint.FILTER_BITMAP_FLAG));
+        return target;
     }
 
     /**
-     * Load thumbnail.
+     * Load thumbnail. While the list holding the view scrolls, the thumbnail is handed to the delivery coordinator of
+     * the list, which shows it once the list settles.
      *
      * @param bitmap    the bitmap
      * @param imageView the image view
      */
     @UiThread
     public void loadThumbnail(final Bitmap bitmap, final ImageView imageView){
-        ViewParent parent = imageView.getParent();
-        boolean isScrolling = false;
-        while (parent != null){
-            parent = parent.getParent();
-            if (parent instanceof RecyclerView){
-                isScrolling = ((RecyclerView) parent).getScrollState() != RecyclerView.SCROLL_STATE_IDLE;
-                if (isScrolling) {
-                    final WeakReference<ImageView> imageViewRef = new WeakReference<>(imageView);
-                    ((RecyclerView) parent).addOnScrollListener(new RecyclerView.OnScrollListener() {
-                        @Override
-                        public void onScrollStateChanged(RecyclerView recyclerView, int newState) {
-                            if (imageViewRef.get() == null){
-                                recyclerView.removeOnScrollListener(this);
-                                return;
-                            }
-                            if (newState == RecyclerView.SCROLL_STATE_IDLE) {
-                                ImageView view = imageViewRef.get();
-                                if (view != null && view.getDrawable() instanceof LoaderDrawable) {
-                                    if (TYPE_REPRESENTATION.equals(ViewData.getImageType(view))) {
-                                        loadThumbnailRepresentation((BoxFile)((LoaderDrawable) view.getDrawable()).getTask().getBoxItem(), view, null);
-                                    } else{
-                                        loadThumbnail(((LoaderDrawable) view.getDrawable()).getTask().getBoxItem(), view);
-                                    }
-                                }
-                                recyclerView.removeOnScrollListener(this);
-
-                            }
-                        }
-                    });
-                }
+        RecyclerView recyclerView = findRecyclerView(imageView);
+        if (recyclerView != null && recyclerView.getScrollState() != RecyclerView.SCROLL_STATE_IDLE) {
+            getDeliveryCoordinator(recyclerView).enqueue(imageView, bitmap);
+            return;
+        }
+        queueDelivery(imageView, bitmap);
+    }
+
+    /**
+     * Queues a thumbnail to be shown within the frame budget of the delivery queue.
+     *
+     * @param imageView the image view
+     * @param bitmap    the bitmap
+     */
+    void queueDelivery(final ImageView imageView, final Bitmap bitmap) {
+        mDeliveryQueue.post(imageView, new Runnable() {
+            @Override
+            public void run() {
+                deliverThumbnail(imageView, bitmap);
             }
+        });
+    }
+
+    /**
+     * Gets the queue completed thumbnails are shown through, e.g. to read its delivery metrics.
+     *
+     * @return the delivery queue
+     */
+    public ThumbnailDeliveryQueue getDeliveryQueue() {
+        return mDeliveryQueue;
+    }
+
+    /**
+     * Shows a loaded thumbnail and notifies the image load listener of the view.
+     *
+     * @param imageView the image view
+     * @param bitmap    the bitmap
+     */
+    @UiThread
+    void deliverThumbnail(final ImageView imageView, final Bitmap bitmap) {
+        //TODO decide whether to use two views for crossfading animation.
+        setImageBitmap(imageView, bitmap);
+        ViewData.getImageLoadListener(imageView).onSuccess();
+    }
+
+    private ThumbnailDeliveryCoordinator getDeliveryCoordinator(RecyclerView recyclerView) {
+        ThumbnailDeliveryCoordinator coordinator = mDeliveryCoordinators.get(recyclerView);
+        if (coordinator == null) {
+            coordinator = new ThumbnailDeliveryCoordinator(this, recyclerView);
+            mDeliveryCoordinators.put(recyclerView, coordinator);
         }
-        boolean isMediaType = TYPE_MEDIA.equals(ViewData.getImageType(imageView));
-        if (isScrolling && !isMediaType){
-            // do nothing we will handle this with the scroll listener.
-        } else {
-            mHandler.post(new Runnable() {
-                @Override
-                public void run() {
-                    //TODO decide whether to use two views for crossfading animation.
-                    imageView.setImageBitmap(bitmap);
-                    ViewData.getImageLoadListener(imageView).onSuccess();
-                }
-            });
+        return coordinator;
+    }
+
+    private static RecyclerView findRecyclerView(View view) {
+        ViewParent parent = view.getParent();
+        while (parent != null && !(parent instanceof RecyclerView)) {
+            parent = parent.getParent();
         }
+        return (RecyclerView) parent;
+    }
+
+    /**
+     * Shows a thumbnail in a view, keeping the bitmap out of the bitmap pool while it is shown.
+     *
+     * @param imageView the image view
+     * @param bitmap    the bitmap
+     */
+    @UiThread
+    protected void setImageBitmap(final ImageView imageView, final Bitmap bitmap) {
+        if (getBitmapPool() != null) {
+            getBitmapPool().setDisplayed(imageView, bitmap);
+        }
+        imageView.setImageBitmap(bitmap);
+    }
 
+    private void releaseBitmap(Bitmap bitmap) {
+        if (getBitmapPool() != null) {
+            getBitmapPool().put(bitmap);
+        } else {
+            bitmap.recycle();
+        }
     }
 
     private boolean isRequestStillApplicable(final BoxRequest request, final ImageView view) {
@@ -0,0 +1,132 @@
+package com.box.androidsdk.browse.adapters;
+
+import com.box.androidsdk.browse.models.BoxItemFingerprint;
+import com.box.androidsdk.content.models.BoxFile;
+import com.box.androidsdk.content.models.BoxItem;
+import com.eclipsesource.json.JsonObject;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class BoxItemListSnapshotTest {
+
+    private final BoxItem mFirst = file("1", "first");
+    private final BoxItem mSecond = file("2", "second");
+    private final BoxItem mThird = file("3", "third");
+    private final BoxItem mFourth = file("4", "fourth");
+
+    @Test
+    public void ofIndexesItemsAndFingerprints() {
+        BoxItemListSnapshot snapshot = BoxItemListSnapshot.of(Arrays.asList(mFirst, mSecond, mThird));
+
+        assertEquals(3, snapshot.size());
+        assertConsistent(snapshot, mFirst, mSecond, mThird);
+    }
+
+    @Test
+    public void ofEmptyCollectionReturnsEmptySnapshot() {
+        assertSame(BoxItemListSnapshot.EMPTY, BoxItemListSnapshot.of(Collections.<BoxItem>emptyList()));
+    }
+
+    @Test
+    public void outOfRangeLookupsReturnDefaults() {
+        BoxItemListSnapshot snapshot = BoxItemListSnapshot.of(Collections.singletonList(mFirst));
+
+        assertNull(snapshot.get(-1));
+        assertNull(snapshot.get(1));
+        assertEquals(0, snapshot.getFingerprint(1));
+        assertEquals(-1, snapshot.indexOf("2"));
+        assertEquals(-1, snapshot.indexOf(null));
+    }
+
+    @Test
+    public void indexOfReturnsFirstPositionOfDuplicateId() {
+        BoxItemListSnapshot snapshot = BoxItemListSnapshot.of(Arrays.asList(mFirst, mSecond, file("1", "again")));
+
+        assertEquals(0, snapshot.indexOf("1"));
+    }
+
+    @Test
+    public void withAppendedIndexesNewItems() {
+        BoxItemListSnapshot snapshot = BoxItemListSnapshot.of(Arrays.asList(mFirst, mSecond));
+
+        BoxItemListSnapshot appended = snapshot.withAppended(Arrays.asList(mThird, mFourth));
+
+        assertConsistent(appended, mFirst, mSecond, mThird, mFourth);
+        assertConsistent(snapshot, mFirst, mSecond);
+    }
+
+    @Test
+    public void withRemovedShiftsPositionsOfFollowingItems() {
+        BoxItemListSnapshot snapshot = BoxItemListSnapshot.of(Arrays.asList(mFirst, mSecond, mThird, mFourth));
+
+        BoxItemListSnapshot removed = snapshot.withRemoved(new HashSet<String>(Arrays.asList("1", "3")));
+
+        assertConsistent(removed, mSecond, mFourth);
+        assertEquals(-1, removed.indexOf("1"));
+        assertEquals(-1, removed.indexOf("3"));
+        assertConsistent(snapshot, mFirst, mSecond, mThird, mFourth);
+    }
+
+    @Test
+    public void withRemovedThenAppendedStaysConsistent() {
+        BoxItemListSnapshot snapshot = BoxItemListSnapshot.of(Arrays.asList(mFirst, mSecond, mThird));
+
+        BoxItemListSnapshot changed = snapshot.withRemoved(Collections.singleton("2"))
+                .withAppended(Collections.singletonList(mFourth));
+
+        assertConsistent(changed, mFirst, mThird, mFourth);
+        assertEquals(-1, changed.indexOf("2"));
+    }
+
+    @Test
+    public void withRemovedAllReturnsEmptySnapshot() {
+        BoxItemListSnapshot snapshot = BoxItemListSnapshot.of(Arrays.asList(mFirst, mSecond));
+
+        assertSame(BoxItemListSnapshot.EMPTY, snapshot.withRemoved(new HashSet<String>(Arrays.asList("1", "2"))));
+    }
+
+    @Test
+    public void withReplacedUpdatesFingerprintOfPosition() {
+        BoxItemListSnapshot snapshot = BoxItemListSnapshot.of(Arrays.asList(mFirst, mSecond, mThird));
+        BoxItem renamed = file("2", "renamed");
+
+        BoxItemListSnapshot replaced = snapshot.withReplaced(1, renamed);
+
+        assertConsistent(replaced, mFirst, renamed, mThird);
+        assertEquals(BoxItemFingerprint.compute(mSecond), snapshot.getFingerprint(1));
+        assertSame(mSecond, snapshot.get(1));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void getItemsIsUnmodifiable() {
+        BoxItemListSnapshot.of(Collections.singletonList(mFirst)).getItems().add(mSecond);
+    }
+
+    /**
+     * Asserts that a snapshot lists exactly the given items, and that positions and fingerprints match them.
+     */
+    private static void assertConsistent(BoxItemListSnapshot snapshot, BoxItem... items) {
+        assertEquals(Arrays.asList(items), snapshot.getItems());
+        for (int i = 0; i < items.length; i++) {
+            assertSame(items[i], snapshot.get(i));
+            assertEquals(i, snapshot.indexOf(items[i].getId()));
+            assertEquals(BoxItemFingerprint.compute(items[i]), snapshot.getFingerprint(i));
+        }
+    }
+
+    private static BoxItem file(String id, String name) {
+        JsonObject json = new JsonObject();
+        json.add(BoxFile.FIELD_TYPE, BoxFile.TYPE);
+        json.add(BoxFile.FIELD_ID, id);
+        json.add(BoxFile.FIELD_NAME, name);
+        return new BoxFile(json);
+    }
+}
@@ -0,0 +1,112 @@
+package com.box.androidsdk.browse.models;
+
+import com.box.androidsdk.content.models.BoxFile;
+import com.box.androidsdk.content.models.BoxFolder;
+import com.box.androidsdk.content.models.BoxItem;
+import com.eclipsesource.json.JsonObject;
+import com.eclipsesource.json.JsonValue;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class BoxItemFingerprintTest {
+
+    @Test
+    public void itemsWithSameFieldsHaveSameFingerprint() {
+        assertEquals(BoxItemFingerprint.compute(new BoxFile(file())),
+                BoxItemFingerprint.compute(new BoxFile(file())));
+        assertEquals(BoxItemFingerprint.compute(new BoxFolder(folder())),
+                BoxItemFingerprint.compute(new BoxFolder(folder())));
+    }
+
+    @Test
+    public void nameChangesFingerprint() {
+        assertFileChanges(BoxItem.FIELD_NAME, JsonValue.valueOf("report.pdf"));
+    }
+
+    @Test
+    public void modifiedAtChangesFingerprint() {
+        assertFileChanges(BoxItem.FIELD_MODIFIED_AT, JsonValue.valueOf("2024-05-02T10:00:00-07:00"));
+    }
+
+    @Test
+    public void sizeChangesFingerprint() {
+        assertFileChanges(BoxItem.FIELD_SIZE, JsonValue.valueOf(2049));
+    }
+
+    @Test
+    public void sha1ChangesFingerprint() {
+        assertFileChanges(BoxFile.FIELD_SHA1, JsonValue.valueOf("85136c79cbf9fe36bb9d05d0639c70c265c18d38"));
+    }
+
+    @Test
+    public void previewPermissionChangesFingerprint() {
+        assertFileChanges(BoxItem.FIELD_PERMISSIONS, new JsonObject().add("can_preview", false));
+    }
+
+    @Test
+    public void hasCollaborationsChangesFingerprint() {
+        JsonObject changed = folder();
+        changed.set(BoxFolder.FIELD_HAS_COLLABORATIONS, true);
+
+        assertNotEquals(BoxItemFingerprint.compute(new BoxFolder(folder())),
+                BoxItemFingerprint.compute(new BoxFolder(changed)));
+    }
+
+    @Test
+    public void typeChangesFingerprint() {
+        JsonObject folder = file();
+        folder.set(BoxItem.FIELD_TYPE, BoxFolder.TYPE);
+
+        assertNotEquals(BoxItemFingerprint.compute(new BoxFile(file())),
+                BoxItemFingerprint.compute(new BoxFolder(folder)));
+    }
+
+    @Test
+    public void fieldBoundariesChangeFingerprint() {
+        JsonObject first = file();
+        first.set(BoxItem.FIELD_ID, "12");
+        first.set(BoxItem.FIELD_NAME, "3");
+        JsonObject second = file();
+        second.set(BoxItem.FIELD_ID, "1");
+        second.set(BoxItem.FIELD_NAME, "23");
+
+        assertNotEquals(BoxItemFingerprint.compute(new BoxFile(first)),
+                BoxItemFingerprint.compute(new BoxFile(second)));
+    }
+
+    /**
+     * Asserts that a file differing from {@link #file()} in a single field has another fingerprint.
+     */
+    private static void assertFileChanges(String field, JsonValue value) {
+        JsonObject changed = file();
+        changed.set(field, value);
+
+        assertNotEquals(BoxItemFingerprint.compute(new BoxFile(file())),
+                BoxItemFingerprint.compute(new BoxFile(changed)));
+    }
+
+    private static JsonObject file() {
+        JsonObject json = new JsonObject();
+        json.add(BoxItem.FIELD_TYPE, BoxFile.TYPE);
+        json.add(BoxItem.FIELD_ID, "1");
+        json.add(BoxItem.FIELD_NAME, "report.docx");
+        json.add(BoxItem.FIELD_MODIFIED_AT, "2024-05-01T10:00:00-07:00");
+        json.add(BoxItem.FIELD_SIZE, 2048);
+        json.add(BoxFile.FIELD_SHA1, "da39a3ee5e6b4b0d3255bfef95601890afd80709");
+        json.add(BoxItem.FIELD_PERMISSIONS, new JsonObject().add("can_preview", true));
+        return json;
+    }
+
+    private static JsonObject folder() {
+        JsonObject json = new JsonObject();
+        json.add(BoxItem.FIELD_TYPE, BoxFolder.TYPE);
+        json.add(BoxItem.FIELD_ID, "2");
+        json.add(BoxItem.FIELD_NAME, "Reports");
+        json.add(BoxItem.FIELD_MODIFIED_AT, "2024-05-01T10:00:00-07:00");
+        json.add(BoxFolder.FIELD_HAS_COLLABORATIONS, false);
+        return json;
+    }
+}
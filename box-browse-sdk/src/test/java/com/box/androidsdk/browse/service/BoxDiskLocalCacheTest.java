@@ -0,0 +1,206 @@
+package com.box.androidsdk.browse.service;
+
+import com.box.androidsdk.content.models.BoxFolder;
+import com.box.androidsdk.content.models.BoxIteratorItems;
+import com.box.androidsdk.content.requests.BoxRequestsFolder;
+import com.box.androidsdk.content.requests.BoxResponse;
+import com.eclipsesource.json.JsonArray;
+import com.eclipsesource.json.JsonObject;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class BoxDiskLocalCacheTest {
+
+    private static final String USER_ID = "user";
+    private static final String[] FIELDS = new String[]{BoxFolder.FIELD_NAME, BoxFolder.FIELD_ID};
+
+    private File mDirectory;
+
+    @Before
+    public void setUp() {
+        mDirectory = new File(RuntimeEnvironment.getApplication().getCacheDir(), "BoxFolderListings");
+        newCache().clear();
+    }
+
+    @Test
+    public void restoresListingFromGzippedFile() throws Exception {
+        BoxDiskLocalCache written = newCache();
+        written.put(response(folderRequest(written, "1")));
+
+        File file = new File(mDirectory, USER_ID + "_1.json.gz");
+        assertTrue(file.exists());
+        Reader reader = new InputStreamReader(new GZIPInputStream(new FileInputStream(file)), "UTF-8");
+        try {
+            assertEquals("Folder 1", JsonObject.readFrom(reader).get(BoxFolder.FIELD_NAME).asString());
+        } finally {
+            reader.close();
+        }
+
+        // A new cache has nothing in memory, so the listing comes from disk
+        BoxDiskLocalCache cache = newCache();
+        BoxFolder folder = cache.get(folderRequest(cache, "1"));
+        assertEquals("1", folder.getId());
+        assertEquals("Folder 1", folder.getName());
+    }
+
+    @Test
+    public void storesListingsOfOtherFieldsApart() throws Exception {
+        BoxDiskLocalCache cache = newCache();
+        BoxRequestsFolder.GetFolderWithAllItems request = folderRequest(cache, "1");
+        cache.bindFields(request, FIELDS);
+        cache.put(response(request));
+
+        BoxDiskLocalCache restored = newCache();
+        BoxRequestsFolder.GetFolderWithAllItems sameFields = folderRequest(restored, "1");
+        restored.bindFields(sameFields, new String[]{BoxFolder.FIELD_ID, BoxFolder.FIELD_NAME});
+        assertEquals("Folder 1", ((BoxFolder) restored.get(sameFields)).getName());
+        assertNull(restored.get(folderRequest(restored, "1")));
+    }
+
+    @Test
+    public void restoresFirstPageFromGzippedFile() throws Exception {
+        BoxDiskLocalCache cache = newCache();
+        BoxRequestsFolder.GetFolderItems request = pageRequest(cache, "1");
+        cache.put(new BoxResponse<BoxIteratorItems>(page(), null, request));
+
+        BoxDiskLocalCache restored = newCache();
+        BoxIteratorItems items = restored.get(pageRequest(restored, "1"));
+        assertEquals(1, items.size());
+        assertEquals("2", items.get(0).getId());
+    }
+
+    @Test
+    public void keepsListingOfUnboundRequestInMemoryOnly() throws Exception {
+        BoxDiskLocalCache cache = newCache();
+        BoxRequestsFolder.GetFolderWithAllItems request = new BoxRequestsFolder.GetFolderWithAllItems("1",
+                "https://api.box.com/2.0/folders/1", null);
+        cache.put(response(request));
+
+        assertEquals("Folder 1", ((BoxFolder) cache.get(request)).getName());
+        String[] files = mDirectory.list();
+        assertTrue(files == null || files.length == 0);
+    }
+
+    @Test
+    public void evictsLeastRecentlyModifiedListingsBeyondBudget() throws Exception {
+        BoxDiskLocalCache cache = newCache();
+        cache.put(response(folderRequest(cache, "1")));
+        cache.put(response(folderRequest(cache, "2")));
+        File first = new File(mDirectory, USER_ID + "_1.json.gz");
+        File second = new File(mDirectory, USER_ID + "_2.json.gz");
+        // The second listing was written first as far as a restarted cache can tell
+        long now = System.currentTimeMillis();
+        assertTrue(first.setLastModified(now - 1000));
+        assertTrue(second.setLastModified(now - 2000));
+
+        BoxDiskLocalCache restarted = new BoxDiskLocalCache(RuntimeEnvironment.getApplication(),
+                first.length() + second.length() + first.length() / 2);
+        restarted.put(response(folderRequest(restarted, "3")));
+
+        assertTrue(first.exists());
+        assertFalse(second.exists());
+        assertTrue(new File(mDirectory, USER_ID + "_3.json.gz").exists());
+    }
+
+    @Test
+    public void readingListingDefersItsEviction() throws Exception {
+        BoxDiskLocalCache cache = newCache();
+        cache.put(response(folderRequest(cache, "1")));
+        cache.put(response(folderRequest(cache, "2")));
+        File first = new File(mDirectory, USER_ID + "_1.json.gz");
+        File second = new File(mDirectory, USER_ID + "_2.json.gz");
+        long now = System.currentTimeMillis();
+        assertTrue(first.setLastModified(now - 2000));
+        assertTrue(second.setLastModified(now - 1000));
+
+        BoxDiskLocalCache restarted = new BoxDiskLocalCache(RuntimeEnvironment.getApplication(),
+                first.length() + second.length() + first.length() / 2);
+        restarted.get(folderRequest(restarted, "1"));
+        restarted.put(response(folderRequest(restarted, "3")));
+
+        assertTrue(first.exists());
+        assertFalse(second.exists());
+    }
+
+    @Test
+    public void deletesStaleTempFilesOnly() throws Exception {
+        assertTrue(mDirectory.mkdirs() || mDirectory.isDirectory());
+        File stale = new File(mDirectory, USER_ID + "_1.json.gz1.tmp");
+        File fresh = new File(mDirectory, USER_ID + "_2.json.gz1.tmp");
+        assertTrue(stale.createNewFile());
+        assertTrue(fresh.createNewFile());
+        assertTrue(stale.setLastModified(System.currentTimeMillis() - 11 * 60 * 1000));
+
+        // Loading the index on the first read cleans up
+        BoxDiskLocalCache cache = newCache();
+        assertNull(cache.get(folderRequest(cache, "1")));
+
+        assertFalse(stale.exists());
+        assertTrue(fresh.exists());
+    }
+
+    @Test
+    public void clearDeletesListingsOnDisk() throws Exception {
+        BoxDiskLocalCache cache = newCache();
+        cache.put(response(folderRequest(cache, "1")));
+
+        cache.clear();
+
+        assertFalse(new File(mDirectory, USER_ID + "_1.json.gz").exists());
+        assertNull(cache.get(folderRequest(cache, "1")));
+    }
+
+    private static BoxDiskLocalCache newCache() {
+        return new BoxDiskLocalCache(RuntimeEnvironment.getApplication());
+    }
+
+    private static BoxRequestsFolder.GetFolderWithAllItems folderRequest(BoxDiskLocalCache cache, String id) {
+        BoxRequestsFolder.GetFolderWithAllItems request = new BoxRequestsFolder.GetFolderWithAllItems(id,
+                "https://api.box.com/2.0/folders/" + id, null);
+        cache.bindUser(request, USER_ID);
+        return request;
+    }
+
+    private static BoxRequestsFolder.GetFolderItems pageRequest(BoxDiskLocalCache cache, String id) {
+        BoxRequestsFolder.GetFolderItems request = new BoxRequestsFolder.GetFolderItems(id,
+                "https://api.box.com/2.0/folders/" + id + "/items", null);
+        cache.bindUser(request, USER_ID);
+        cache.bindFirstPage(request, FIELDS);
+        return request;
+    }
+
+    private static BoxResponse<BoxFolder> response(BoxRequestsFolder.GetFolderWithAllItems request) {
+        JsonObject json = new JsonObject();
+        json.add(BoxFolder.FIELD_TYPE, BoxFolder.TYPE);
+        json.add(BoxFolder.FIELD_ID, request.getId());
+        json.add(BoxFolder.FIELD_NAME, "Folder " + request.getId());
+        return new BoxResponse<BoxFolder>(new BoxFolder(json), null, request);
+    }
+
+    private static BoxIteratorItems page() {
+        JsonObject item = new JsonObject();
+        item.add(BoxFolder.FIELD_TYPE, BoxFolder.TYPE);
+        item.add(BoxFolder.FIELD_ID, "2");
+        item.add(BoxFolder.FIELD_NAME, "Folder 2");
+        JsonObject json = new JsonObject();
+        json.add(BoxIteratorItems.FIELD_ENTRIES, new JsonArray().add(item));
+        json.add(BoxIteratorItems.FIELD_TOTAL_COUNT, 1);
+        return new BoxIteratorItems(json);
+    }
+}
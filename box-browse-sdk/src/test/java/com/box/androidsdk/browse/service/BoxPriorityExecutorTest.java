@@ -0,0 +1,219 @@
+package com.box.androidsdk.browse.service;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BoxPriorityExecutorTest {
+
+    private final List<String> mOrder = Collections.synchronizedList(new ArrayList<String>());
+    private final CountDownLatch mGate = new CountDownLatch(1);
+    private final AtomicInteger mPrestarts = new AtomicInteger();
+    private BoxPriorityExecutor mExecutor;
+
+    @After
+    public void tearDown() throws InterruptedException {
+        mGate.countDown();
+        if (mExecutor != null) {
+            mExecutor.shutdownNow();
+            mExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void runsQueuedTasksByPriority() throws Exception {
+        blockedExecutor(10, false);
+        mExecutor.execute(record("background"), BrowseController.Priority.BACKGROUND);
+        mExecutor.execute(record("prefetch"), BrowseController.Priority.PREFETCH);
+        mExecutor.execute(record("visible"), BrowseController.Priority.VISIBLE);
+        mExecutor.execute(record("user"), BrowseController.Priority.USER_INITIATED);
+
+        assertEquals(Arrays.asList("user", "visible", "prefetch", "background"), runQueued());
+    }
+
+    @Test
+    public void runsTasksOfSamePriorityInOrderOfExecution() throws Exception {
+        blockedExecutor(10, false);
+        mExecutor.execute(record("first"), BrowseController.Priority.VISIBLE);
+        mExecutor.execute(record("second"), BrowseController.Priority.VISIBLE);
+        mExecutor.execute(record("third"), BrowseController.Priority.VISIBLE);
+
+        assertEquals(Arrays.asList("first", "second", "third"), runQueued());
+    }
+
+    @Test
+    public void runsNewestTaskOfSamePriorityFirstInLifoMode() throws Exception {
+        blockedExecutor(10, true);
+        mExecutor.execute(record("prefetch"), BrowseController.Priority.PREFETCH);
+        mExecutor.execute(record("first"), BrowseController.Priority.VISIBLE);
+        mExecutor.execute(record("second"), BrowseController.Priority.VISIBLE);
+        mExecutor.execute(record("third"), BrowseController.Priority.VISIBLE);
+
+        assertEquals(Arrays.asList("third", "second", "first", "prefetch"), runQueued());
+    }
+
+    @Test
+    public void executeDefaultsToVisiblePriority() throws Exception {
+        blockedExecutor(10, false);
+        mExecutor.execute(record("prefetch"), BrowseController.Priority.PREFETCH);
+        mExecutor.execute(record("default"));
+
+        assertEquals(Arrays.asList("default", "prefetch"), runQueued());
+    }
+
+    @Test
+    public void fullQueueCancelsTaskThatWouldRunLast() throws Exception {
+        blockedExecutor(2, false);
+        FutureTask<Void> visible = task("visible");
+        FutureTask<Void> prefetch = task("prefetch");
+        FutureTask<Void> user = task("user");
+        mExecutor.execute(visible, BrowseController.Priority.VISIBLE);
+        mExecutor.execute(prefetch, BrowseController.Priority.PREFETCH);
+        mExecutor.execute(user, BrowseController.Priority.USER_INITIATED);
+
+        assertTrue(prefetch.isCancelled());
+        assertEquals(2, mExecutor.getQueue().size());
+        assertEquals(Arrays.asList("user", "visible"), runQueued());
+    }
+
+    @Test
+    public void fullQueueCancelsIncomingTaskThatWouldRunLast() throws Exception {
+        blockedExecutor(2, false);
+        mExecutor.execute(record("first"), BrowseController.Priority.VISIBLE);
+        mExecutor.execute(record("second"), BrowseController.Priority.VISIBLE);
+        FutureTask<Void> background = task("background");
+        FutureTask<Void> third = task("third");
+        mExecutor.execute(background, BrowseController.Priority.BACKGROUND);
+        mExecutor.execute(third, BrowseController.Priority.VISIBLE);
+
+        assertTrue(background.isCancelled());
+        assertTrue(third.isCancelled());
+        assertEquals(Arrays.asList("first", "second"), runQueued());
+    }
+
+    @Test
+    public void fullQueueInLifoModeCancelsOldestTaskOfLowestPriority() throws Exception {
+        blockedExecutor(2, true);
+        FutureTask<Void> first = task("first");
+        mExecutor.execute(first, BrowseController.Priority.VISIBLE);
+        mExecutor.execute(record("second"), BrowseController.Priority.VISIBLE);
+        mExecutor.execute(record("third"), BrowseController.Priority.VISIBLE);
+
+        assertTrue(first.isCancelled());
+        assertEquals(Arrays.asList("third", "second"), runQueued());
+    }
+
+    @Test
+    public void setPriorityRequeuesTaskAndStartsWorker() throws Exception {
+        blockedExecutor(10, false);
+        Runnable first = record("first");
+        Runnable second = record("second");
+        mExecutor.execute(first, BrowseController.Priority.PREFETCH);
+        mExecutor.execute(second, BrowseController.Priority.PREFETCH);
+        int prestarts = mPrestarts.get();
+
+        assertTrue(mExecutor.setPriority(second, BrowseController.Priority.USER_INITIATED));
+
+        assertEquals(prestarts + 1, mPrestarts.get());
+        assertEquals(2, mExecutor.getQueue().size());
+        assertEquals(Arrays.asList("second", "first"), runQueued());
+    }
+
+    @Test
+    public void setPriorityOrdersTaskAsIfExecutedNow() throws Exception {
+        blockedExecutor(10, false);
+        Runnable first = record("first");
+        mExecutor.execute(first, BrowseController.Priority.PREFETCH);
+        mExecutor.execute(record("second"), BrowseController.Priority.VISIBLE);
+
+        assertTrue(mExecutor.setPriority(first, BrowseController.Priority.VISIBLE));
+
+        assertEquals(Arrays.asList("second", "first"), runQueued());
+    }
+
+    @Test
+    public void setPriorityIgnoresTaskThatIsNotQueued() throws Exception {
+        blockedExecutor(10, false);
+        int prestarts = mPrestarts.get();
+
+        assertFalse(mExecutor.setPriority(record("unknown"), BrowseController.Priority.USER_INITIATED));
+        assertEquals(prestarts, mPrestarts.get());
+    }
+
+    @Test
+    public void removeCancelsWrappedCommand() throws Exception {
+        blockedExecutor(10, false);
+        FutureTask<Void> removed = task("removed");
+        mExecutor.execute(removed, BrowseController.Priority.VISIBLE);
+        mExecutor.execute(record("kept"), BrowseController.Priority.VISIBLE);
+
+        assertTrue(mExecutor.remove(removed));
+
+        assertTrue(removed.isCancelled());
+        assertFalse(mExecutor.remove(removed));
+        assertEquals(Collections.singletonList("kept"), runQueued());
+    }
+
+    /**
+     * Creates a single threaded executor whose worker is held until {@link #runQueued()}, so that tasks executed
+     * meanwhile are queued.
+     */
+    private void blockedExecutor(int queueCapacity, boolean lifo) throws InterruptedException {
+        mExecutor = new BoxPriorityExecutor(1, queueCapacity, lifo, 1, TimeUnit.SECONDS, Executors.defaultThreadFactory()) {
+            @Override
+            public boolean prestartCoreThread() {
+                mPrestarts.incrementAndGet();
+                return super.prestartCoreThread();
+            }
+        };
+        final CountDownLatch started = new CountDownLatch(1);
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                started.countDown();
+                try {
+                    mGate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }, BrowseController.Priority.USER_INITIATED);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Releases the worker and returns the names of the tasks in the order they ran.
+     */
+    private List<String> runQueued() throws InterruptedException {
+        mGate.countDown();
+        mExecutor.shutdown();
+        assertTrue(mExecutor.awaitTermination(5, TimeUnit.SECONDS));
+        return new ArrayList<String>(mOrder);
+    }
+
+    private Runnable record(final String name) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                mOrder.add(name);
+            }
+        };
+    }
+
+    private FutureTask<Void> task(String name) {
+        return new FutureTask<Void>(record(name), null);
+    }
+}
@@ -0,0 +1,228 @@
+package com.box.androidsdk.browse.service;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.HashMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BoxThumbnailDiskCacheTest {
+
+    @Rule
+    public TemporaryFolder mFolder = new TemporaryFolder();
+
+    @Test
+    public void trimsLeastRecentlyUsedThumbnailsBeyondBudget() throws Exception {
+        TestCache cache = new TestCache(250);
+        File first = writeFile("first", 100);
+        cache.recordWrite(first, 1000);
+        File second = writeFile("second", 100);
+        cache.recordWrite(second, 2000);
+        cache.mNow = 3000;
+        cache.recordRead(first);
+        File third = writeFile("third", 100);
+        cache.recordWrite(third, 4000);
+        cache.awaitMaintenance();
+
+        assertTrue(first.exists());
+        assertFalse(second.exists());
+        assertTrue(third.exists());
+        assertEquals(200, cache.getSize());
+    }
+
+    @Test
+    public void keepsThumbnailsWithinBudget() throws Exception {
+        TestCache cache = new TestCache(300);
+        File first = writeFile("first", 100);
+        cache.recordWrite(first, 1000);
+        File second = writeFile("second", 100);
+        cache.recordWrite(second, 2000);
+        cache.awaitMaintenance();
+
+        assertTrue(first.exists());
+        assertTrue(second.exists());
+        assertEquals(200, cache.getSize());
+    }
+
+    @Test
+    public void persistsIndexOnWrite() throws Exception {
+        TestCache cache = new TestCache(1000);
+        cache.recordWrite(writeFile("first", 100), 1000);
+        cache.awaitMaintenance();
+
+        HashMap<String, String> index = readIndex();
+        assertEquals("100 1000", index.get("first"));
+    }
+
+    @Test
+    public void reloadsIndexInsteadOfListingDirectory() throws Exception {
+        TestCache cache = new TestCache(1000);
+        File first = writeFile("first", 100);
+        cache.recordWrite(first, 1000);
+        cache.awaitMaintenance();
+        // Not in the index, so only counted if the directory were listed again
+        writeFile("unindexed", 100);
+
+        TestCache reloaded = new TestCache(1000);
+        reloaded.mNow = 2000;
+        reloaded.recordRead(first);
+
+        assertEquals(100, reloaded.getSize());
+    }
+
+    @Test
+    public void reloadedIndexKeepsLeastRecentlyUsedOrder() throws Exception {
+        TestCache cache = new TestCache(1000);
+        File first = writeFile("first", 100);
+        cache.recordWrite(first, 1000);
+        File second = writeFile("second", 100);
+        cache.recordWrite(second, 2000);
+        cache.awaitMaintenance();
+        cache.mNow = 2000 + BoxThumbnailDiskCache.INDEX_WRITE_INTERVAL_MILLIS;
+        cache.recordRead(first);
+        cache.awaitMaintenance();
+
+        TestCache reloaded = new TestCache(250);
+        reloaded.recordWrite(writeFile("third", 100), 3000 + BoxThumbnailDiskCache.INDEX_WRITE_INTERVAL_MILLIS);
+        reloaded.awaitMaintenance();
+
+        assertTrue(first.exists());
+        assertFalse(second.exists());
+    }
+
+    @Test
+    public void persistsReadsAtMostOncePerInterval() throws Exception {
+        TestCache cache = new TestCache(1000);
+        File first = writeFile("first", 100);
+        cache.recordWrite(first, 1000);
+        cache.awaitMaintenance();
+
+        cache.mNow = 1000 + BoxThumbnailDiskCache.INDEX_WRITE_INTERVAL_MILLIS - 1;
+        cache.recordRead(first);
+        cache.awaitMaintenance();
+        assertEquals("100 1000", readIndex().get("first"));
+
+        cache.mNow = 1000 + BoxThumbnailDiskCache.INDEX_WRITE_INTERVAL_MILLIS;
+        cache.recordRead(first);
+        cache.awaitMaintenance();
+        assertEquals("100 " + cache.mNow, readIndex().get("first"));
+    }
+
+    @Test
+    public void persistsAccessesFromMemoryAtMostOncePerInterval() throws Exception {
+        TestCache cache = new TestCache(1000);
+        cache.recordWrite(writeFile("first", 100), 1000);
+        cache.awaitMaintenance();
+
+        cache.mNow = 2000;
+        cache.recordAccess("first");
+        cache.awaitMaintenance();
+        assertEquals("100 1000", readIndex().get("first"));
+
+        cache.mNow = 1000 + BoxThumbnailDiskCache.INDEX_WRITE_INTERVAL_MILLIS;
+        cache.recordAccess("first");
+        cache.awaitMaintenance();
+        assertEquals("100 " + cache.mNow, readIndex().get("first"));
+    }
+
+    @Test
+    public void scanSkipsDownloadsInProgressAndHiddenFiles() throws Exception {
+        File first = writeFile("first", 100);
+        writeFile("second.part", 100);
+        writeFile(".hidden", 100);
+        writeFile("empty", 0);
+
+        TestCache cache = new TestCache(1000);
+        cache.mNow = 1000;
+        cache.recordRead(first);
+
+        assertEquals(100, cache.getSize());
+    }
+
+    @Test
+    public void scanDoesNotTrimDownloadsInProgress() throws Exception {
+        File first = writeFile("first", 100);
+        File part = writeFile("second.part", 100);
+
+        TestCache cache = new TestCache(150);
+        cache.recordWrite(writeFile("third", 100), 1000);
+        cache.awaitMaintenance();
+
+        assertFalse(first.exists());
+        assertTrue(part.exists());
+    }
+
+    @Test
+    public void clearDeletesThumbnailsAndIndex() throws Exception {
+        TestCache cache = new TestCache(1000);
+        File first = writeFile("first", 100);
+        cache.recordWrite(first, 1000);
+        cache.awaitMaintenance();
+
+        cache.clear();
+
+        assertFalse(first.exists());
+        assertFalse(new File(mFolder.getRoot(), ".index").exists());
+        assertEquals(0, cache.getSize());
+    }
+
+    private File writeFile(String name, int size) throws IOException {
+        File file = new File(mFolder.getRoot(), name);
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(new byte[size]);
+        } finally {
+            out.close();
+        }
+        return file;
+    }
+
+    /**
+     * Reads the persisted index as file name to size and access time.
+     */
+    private HashMap<String, String> readIndex() throws IOException {
+        HashMap<String, String> index = new HashMap<String, String>();
+        BufferedReader reader = new BufferedReader(new FileReader(new File(mFolder.getRoot(), ".index")));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int separator = line.indexOf(' ');
+                index.put(line.substring(0, separator), line.substring(separator + 1));
+            }
+        } finally {
+            reader.close();
+        }
+        return index;
+    }
+
+    /**
+     * Cache whose clock is set by the test.
+     */
+    private class TestCache extends BoxThumbnailDiskCache {
+
+        private volatile long mNow;
+
+        TestCache(long maxSize) {
+            super(mFolder.getRoot(), maxSize);
+        }
+
+        void recordWrite(File file, long now) {
+            mNow = now;
+            recordWrite(file);
+        }
+
+        @Override
+        protected long getCurrentTimeMillis() {
+            return mNow;
+        }
+    }
+}
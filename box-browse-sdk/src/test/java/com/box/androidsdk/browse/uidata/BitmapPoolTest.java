@@ -0,0 +1,154 @@
+package com.box.androidsdk.browse.uidata;
+
+import android.graphics.Bitmap;
+import android.widget.ImageView;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+@RunWith(RobolectricTestRunner.class)
+public class BitmapPoolTest {
+
+    private BitmapPool mPool;
+    private ImageView mView;
+
+    @Before
+    public void setUp() {
+        mPool = new BitmapPool(1024 * 1024);
+        mView = new ImageView(RuntimeEnvironment.getApplication());
+    }
+
+    @Test
+    public void getReturnsBitmapOfSmallestBucketThatFits() {
+        Bitmap small = createBitmap(10);
+        Bitmap medium = createBitmap(20);
+        Bitmap large = createBitmap(40);
+        mPool.put(small);
+        mPool.put(medium);
+        mPool.put(large);
+
+        assertSame(medium, mPool.get(15, 15, Bitmap.Config.ARGB_8888));
+        assertSame(small, mPool.get(10, 10, Bitmap.Config.ARGB_8888));
+    }
+
+    @Test
+    public void getTakesBitmapOutOfPool() {
+        Bitmap bitmap = createBitmap(10);
+        mPool.put(bitmap);
+
+        assertSame(bitmap, mPool.get(10, 10, Bitmap.Config.ARGB_8888));
+        assertNull(mPool.get(10, 10, Bitmap.Config.ARGB_8888));
+    }
+
+    @Test
+    public void getRefusesBitmapMoreThanFourTimesTooLarge() {
+        Bitmap bitmap = createBitmap(40);
+        mPool.put(bitmap);
+
+        assertNull(mPool.get(10, 10, Bitmap.Config.ARGB_8888));
+        assertSame(bitmap, mPool.get(20, 20, Bitmap.Config.ARGB_8888));
+    }
+
+    @Test
+    public void getCountsBytesPerPixelOfConfig() {
+        Bitmap bitmap = createBitmap(20);
+        mPool.put(bitmap);
+
+        // 20x20 RGB_565 needs half the memory of the pooled ARGB_8888 bitmap
+        assertSame(bitmap, mPool.get(20, 20, Bitmap.Config.RGB_565));
+    }
+
+    @Test
+    public void putIgnoresDisplayedBitmap() {
+        Bitmap bitmap = createBitmap(10);
+        mView.setImageBitmap(bitmap);
+        mPool.setDisplayed(mView, bitmap);
+
+        mPool.put(bitmap);
+
+        assertNull(mPool.get(10, 10, Bitmap.Config.ARGB_8888));
+    }
+
+    @Test
+    public void putAcceptsDisplayedBitmapOnceViewShowsAnother() {
+        Bitmap bitmap = createBitmap(10);
+        mView.setImageBitmap(bitmap);
+        mPool.setDisplayed(mView, bitmap);
+        mView.setImageBitmap(createBitmap(10));
+
+        mPool.put(bitmap);
+
+        assertSame(bitmap, mPool.get(10, 10, Bitmap.Config.ARGB_8888));
+    }
+
+    @Test
+    public void putAcceptsBitmapReplacedByAnotherDisplayedOne() {
+        Bitmap bitmap = createBitmap(10);
+        mView.setImageBitmap(bitmap);
+        mPool.setDisplayed(mView, bitmap);
+        Bitmap next = createBitmap(10);
+        mView.setImageBitmap(next);
+        mPool.setDisplayed(mView, next);
+
+        mPool.put(bitmap);
+        mPool.put(next);
+
+        assertSame(bitmap, mPool.get(10, 10, Bitmap.Config.ARGB_8888));
+        assertNull(mPool.get(10, 10, Bitmap.Config.ARGB_8888));
+    }
+
+    @Test
+    public void putIgnoresPendingBitmapUntilCleared() {
+        Bitmap bitmap = createBitmap(10);
+        mPool.setPending(mView, bitmap);
+
+        mPool.put(bitmap);
+        assertNull(mPool.get(10, 10, Bitmap.Config.ARGB_8888));
+
+        mPool.clearPending(mView, bitmap);
+        mPool.put(bitmap);
+        assertSame(bitmap, mPool.get(10, 10, Bitmap.Config.ARGB_8888));
+    }
+
+    @Test
+    public void clearPendingKeepsBitmapDecodedSince() {
+        Bitmap bitmap = createBitmap(10);
+        Bitmap next = createBitmap(10);
+        mPool.setPending(mView, bitmap);
+        mPool.setPending(mView, next);
+
+        mPool.clearPending(mView, bitmap);
+        mPool.put(next);
+
+        assertNull(mPool.get(10, 10, Bitmap.Config.ARGB_8888));
+    }
+
+    @Test
+    public void putIgnoresImmutableBitmap() {
+        mPool.put(createBitmap(10).copy(Bitmap.Config.ARGB_8888, false));
+
+        assertNull(mPool.get(10, 10, Bitmap.Config.ARGB_8888));
+    }
+
+    @Test
+    public void putDropsLargestBitmapsBeyondMaxSize() {
+        BitmapPool pool = new BitmapPool(2000);
+        Bitmap large = createBitmap(20);
+        Bitmap small = createBitmap(11);
+        pool.put(large);
+        pool.put(small);
+
+        assertNull(pool.get(20, 20, Bitmap.Config.ARGB_8888));
+        assertSame(small, pool.get(11, 11, Bitmap.Config.ARGB_8888));
+    }
+
+    private static Bitmap createBitmap(int size) {
+        return Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+    }
+}